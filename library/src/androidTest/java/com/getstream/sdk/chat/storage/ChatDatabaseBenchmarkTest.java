@@ -0,0 +1,95 @@
+package com.getstream.sdk.chat.storage;
+
+import android.content.Context;
+import android.util.Log;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Date;
+
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import io.getstream.chat.android.client.models.Message;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares event ingest throughput of a default Room database with {@link ChatDatabase.Builder}.
+ * Every message is written in its own transaction, the same way socket events are persisted.
+ * Results are logged under the "ChatDatabaseBenchmark" tag. The test only checks that both
+ * databases stored every event, wall clock rates vary too much between devices and runs to fail on.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ChatDatabaseBenchmarkTest {
+
+    private static final String TAG = "ChatDatabaseBenchmark";
+    private static final String BASELINE_NAME = "benchmark_baseline.db";
+    private static final String TUNED_NAME = "benchmark_tuned.db";
+    private static final int EVENTS = 2000;
+    private static final int WARM_UP_EVENTS = 200;
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        deleteDatabases();
+    }
+
+    @After
+    public void tearDown() {
+        deleteDatabases();
+    }
+
+    @Test
+    public void eventIngestThroughput() {
+        ChatDatabase baseline = Room.databaseBuilder(context, ChatDatabase.class, BASELINE_NAME)
+                .setJournalMode(RoomDatabase.JournalMode.TRUNCATE)
+                .build();
+        ChatDatabase tuned = new ChatDatabase.Builder(context)
+                .name(TUNED_NAME)
+                .build();
+
+        double baselineRate = ingest(baseline);
+        double tunedRate = ingest(tuned);
+
+        Log.i(TAG, String.format("baseline: %.0f events/s, tuned: %.0f events/s, speedup: %.2fx",
+                baselineRate, tunedRate, tunedRate / baselineRate));
+
+        assertEquals(EVENTS + WARM_UP_EVENTS, baseline.messageDao().countMessages());
+        assertEquals(EVENTS + WARM_UP_EVENTS, tuned.messageDao().countMessages());
+
+        baseline.close();
+        tuned.close();
+    }
+
+    private double ingest(ChatDatabase database) {
+        MessageDao dao = database.messageDao();
+        for (int i = 0; i < WARM_UP_EVENTS; i++) dao.insertMessage(message("warm-up-" + i));
+
+        long start = System.nanoTime();
+        for (int i = 0; i < EVENTS; i++) dao.insertMessage(message("event-" + i));
+        long elapsed = System.nanoTime() - start;
+
+        return EVENTS / (elapsed / 1e9);
+    }
+
+    private static MessageEntity message(String id) {
+        Message message = new Message();
+        message.setId(id);
+        message.setCid("messaging:benchmark");
+        message.setText("benchmark message " + id);
+        message.setCreatedAt(new Date());
+        return new MessageEntity(message);
+    }
+
+    private void deleteDatabases() {
+        context.deleteDatabase(BASELINE_NAME);
+        context.deleteDatabase(TUNED_NAME);
+    }
+}
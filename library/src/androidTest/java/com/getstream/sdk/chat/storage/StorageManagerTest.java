@@ -0,0 +1,102 @@
+package com.getstream.sdk.chat.storage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Date;
+import java.util.List;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import io.getstream.chat.android.client.models.Message;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(AndroidJUnit4.class)
+public class StorageManagerTest {
+
+    private ChatDatabase database;
+
+    @Before
+    public void setUp() {
+        database = Room.inMemoryDatabaseBuilder(
+                InstrumentationRegistry.getInstrumentation().getTargetContext(),
+                ChatDatabase.class
+        ).build();
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void trimsChannelsOverTheirLimit() {
+        insertMessages("messaging:a", 30, 0);
+        insertMessages("messaging:b", 5, 0);
+        StorageManager manager = manager(new StorageBudget.Builder()
+                .maxMessagesPerChannel(10)
+                .maxMessages(0)
+                .maxBytes(0)
+                .batchSize(4));
+
+        manager.trim();
+
+        MessageDao dao = database.messageDao();
+        assertEquals(10, dao.countMessagesForChannel("messaging:a"));
+        assertEquals(5, dao.countMessagesForChannel("messaging:b"));
+        // the oldest messages went first
+        List<MessageEntity> kept = dao.selectMessagesForChannel("messaging:a", 1);
+        assertEquals("messaging:a-20", kept.get(0).getId());
+    }
+
+    @Test
+    public void evictsLeastRecentlyOpenedChannelsFirst() {
+        insertMessages("messaging:a", 20, 0);
+        insertMessages("messaging:b", 20, 0);
+        // never opened, placed by its newest message which is the most recent one
+        insertMessages("messaging:c", 10, 100_000);
+        ChannelAccessDao accessDao = database.channelAccessDao();
+        accessDao.insertChannelAccess(new ChannelAccess("messaging:a", new Date(50_000)));
+        accessDao.insertChannelAccess(new ChannelAccess("messaging:b", new Date(10_000)));
+        StorageManager manager = manager(new StorageBudget.Builder()
+                .maxMessagesPerChannel(0)
+                .maxMessages(25)
+                .maxBytes(0)
+                .batchSize(5));
+
+        manager.trim();
+
+        MessageDao dao = database.messageDao();
+        assertEquals(25, dao.countMessages());
+        assertEquals(0, dao.countMessagesForChannel("messaging:b"));
+        assertEquals(15, dao.countMessagesForChannel("messaging:a"));
+        assertEquals(10, dao.countMessagesForChannel("messaging:c"));
+    }
+
+    private StorageManager manager(StorageBudget.Builder budget) {
+        return new StorageManager(
+                database,
+                database.messageDao(),
+                database.channelAccessDao(),
+                budget.build()
+        );
+    }
+
+    /**
+     * messages with ids cid-0 to cid-(count - 1), created one second apart from the start time
+     */
+    private void insertMessages(String cid, int count, long startMs) {
+        for (int i = 0; i < count; i++) {
+            Message message = new Message();
+            message.setId(cid + "-" + i);
+            message.setCid(cid);
+            message.setText("message " + i);
+            message.setCreatedAt(new Date(startMs + i * 1000L));
+            database.messageDao().insertMessage(new MessageEntity(message));
+        }
+    }
+}
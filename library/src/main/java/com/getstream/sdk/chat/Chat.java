@@ -5,15 +5,22 @@ import android.content.Context;
 import com.getstream.sdk.chat.enums.OnlineStatus;
 import com.getstream.sdk.chat.navigation.ChatNavigationHandler;
 import com.getstream.sdk.chat.navigation.ChatNavigator;
+import com.getstream.sdk.chat.storage.ChatDatabase;
+import com.getstream.sdk.chat.storage.Outbox;
+import com.getstream.sdk.chat.storage.StorageBudget;
+import com.getstream.sdk.chat.storage.StorageManager;
 import com.getstream.sdk.chat.style.ChatFonts;
 import com.getstream.sdk.chat.style.ChatFontsImpl;
 import com.getstream.sdk.chat.style.ChatStyle;
+import com.getstream.sdk.chat.utils.MarkdownCache;
+import com.getstream.sdk.chat.utils.ReconnectSyncEngine;
 import com.getstream.sdk.chat.utils.strings.ChatStrings;
 import com.getstream.sdk.chat.utils.strings.ChatStringsImpl;
 
 import org.jetbrains.annotations.NotNull;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 import io.getstream.chat.android.client.ChatClient;
 import io.getstream.chat.android.client.logger.ChatLogLevel;
@@ -47,8 +54,35 @@ public interface Chat {
 
     ChatMarkdown getMarkdown();
 
+    /**
+     * @return the markdown of the messages rendered off the main thread
+     */
+    MarkdownCache getMarkdownCache();
+
     String getVersion();
 
+    /**
+     * @return the queue of operations waiting for the connection, null without offline storage
+     */
+    @Nullable
+    Outbox getOutbox();
+
+    /**
+     * @return the manager that keeps the offline storage within its budget, null without offline storage
+     */
+    @Nullable
+    StorageManager getStorageManager();
+
+    /**
+     * @return the engine that catches up the open channels after a reconnect
+     */
+    ReconnectSyncEngine getReconnectSync();
+
+    /**
+     * disconnects the user, the message snapshots stored for them are deleted
+     */
+    void disconnect();
+
     class Builder {
 
         private final Context context;
@@ -57,6 +91,8 @@ public interface Chat {
         private ChatStyle style;
         private UrlSigner urlSigner;
         private ChatMarkdown markdown;
+        private ChatDatabase database;
+        private StorageBudget storageBudget;
 
         public Builder(String apiKey, Context context) {
             this.context = context;
@@ -118,20 +154,50 @@ public interface Chat {
             return this;
         }
 
+        /**
+         * enables offline storage, sends and edits that fail are kept in an {@link Outbox}
+         * and flushed when the connection comes back
+         */
+        public Builder offlineStorage(@NonNull ChatDatabase database) {
+            this.database = database;
+            return this;
+        }
+
+        /**
+         * like {@link #offlineStorage(ChatDatabase)} with a database built by
+         * {@link ChatDatabase.Builder} with its defaults
+         */
+        public Builder offlineStorage() {
+            return offlineStorage(new ChatDatabase.Builder(context).build());
+        }
+
+        /**
+         * limits the size of the offline storage, the defaults of {@link StorageBudget.Builder}
+         * are used if it isn't set
+         */
+        public Builder storageBudget(@NonNull StorageBudget budget) {
+            this.storageBudget = budget;
+            return this;
+        }
+
         public Chat build() {
 
             if (style == null) style = new ChatStyle.Builder().build();
             if (urlSigner == null) urlSigner = new UrlSigner.DefaultUrlSigner();
             if(markdown == null) markdown = new ChatMarkdownImpl(context);
+            if (storageBudget == null) storageBudget = new StorageBudget.Builder().build();
 
             ChatClient client = clientBuilder.build();
             ChatImpl chat = new ChatImpl(
+                    context,
                     client,
                     new ChatFontsImpl(style, context),
                     new ChatStringsImpl(context),
                     navigationHandler,
                     urlSigner,
-                    markdown
+                    markdown,
+                    database,
+                    storageBudget
             );
 
             chat.init();
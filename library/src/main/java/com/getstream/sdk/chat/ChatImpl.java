@@ -1,14 +1,24 @@
 package com.getstream.sdk.chat;
 
+import android.content.Context;
+
 import com.getstream.sdk.chat.enums.OnlineStatus;
 import com.getstream.sdk.chat.navigation.ChatNavigationHandler;
 import com.getstream.sdk.chat.navigation.ChatNavigator;
 import com.getstream.sdk.chat.navigation.ChatNavigatorImpl;
+import com.getstream.sdk.chat.storage.ChatDatabase;
+import com.getstream.sdk.chat.storage.Outbox;
+import com.getstream.sdk.chat.storage.StorageBudget;
+import com.getstream.sdk.chat.storage.StorageManager;
 import com.getstream.sdk.chat.style.ChatFonts;
+import com.getstream.sdk.chat.utils.MarkdownCache;
+import com.getstream.sdk.chat.utils.MessageListSnapshotStore;
+import com.getstream.sdk.chat.utils.ReconnectSyncEngine;
 import com.getstream.sdk.chat.utils.strings.ChatStrings;
 
 import org.jetbrains.annotations.NotNull;
 
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import io.getstream.chat.android.client.ChatClient;
@@ -21,6 +31,7 @@ import io.getstream.chat.android.client.socket.SocketListener;
 
 class ChatImpl implements Chat {
 
+    private final Context context;
     private final ChatClient client;
 
     private MutableLiveData<OnlineStatus> onlineStatus = new MutableLiveData<>(OnlineStatus.NOT_INITIALIZED);
@@ -33,19 +44,38 @@ class ChatImpl implements Chat {
     private final ChatFonts chatFonts;
     private final UrlSigner urlSigner;
     private final ChatMarkdown markdown;
-
-    ChatImpl(ChatClient client,
+    private final MarkdownCache markdownCache;
+    @Nullable
+    private final Outbox outbox;
+    @Nullable
+    private final StorageManager storageManager;
+    private final ReconnectSyncEngine reconnectSync;
+
+    ChatImpl(Context context,
+             ChatClient client,
              ChatFonts chatFonts,
              ChatStrings chatStrings,
              ChatNavigationHandler navigationHandler,
              UrlSigner urlSigner,
-             ChatMarkdown markdown) {
+             ChatMarkdown markdown,
+             @Nullable ChatDatabase database,
+             StorageBudget storageBudget) {
 
+        this.context = context.getApplicationContext();
         this.client = client;
         this.chatStrings = chatStrings;
         this.chatFonts = chatFonts;
         this.urlSigner = urlSigner;
         this.markdown = markdown;
+        this.markdownCache = new MarkdownCache(markdown);
+        this.outbox = database == null ? null : new Outbox(client, database.pendingOperationDao());
+        this.storageManager = database == null ? null : new StorageManager(
+                database,
+                database.messageDao(),
+                database.channelAccessDao(),
+                storageBudget
+        );
+        this.reconnectSync = new ReconnectSyncEngine(client);
 
         navigator.setHandler(navigationHandler);
 
@@ -104,6 +134,34 @@ class ChatImpl implements Chat {
         return markdown;
     }
 
+    @Override
+    public MarkdownCache getMarkdownCache() {
+        return markdownCache;
+    }
+
+    @Override
+    @Nullable
+    public Outbox getOutbox() {
+        return outbox;
+    }
+
+    @Override
+    @Nullable
+    public StorageManager getStorageManager() {
+        return storageManager;
+    }
+
+    @Override
+    public ReconnectSyncEngine getReconnectSync() {
+        return reconnectSync;
+    }
+
+    @Override
+    public void disconnect() {
+        client.disconnect();
+        MessageListSnapshotStore.deleteAll(context);
+    }
+
     @Override
     public String getVersion() {
         return BuildConfig.BUILD_TYPE + ":" + BuildConfig.VERSION_NAME;
@@ -113,6 +171,10 @@ class ChatImpl implements Chat {
 
         initSocketListener();
         initLifecycle();
+
+        reconnectSync.start();
+        if (outbox != null) outbox.start();
+        if (storageManager != null) storageManager.start();
     }
 
     private void initLifecycle() {
@@ -135,6 +197,8 @@ class ChatImpl implements Chat {
             public void onConnected(@NotNull ConnectedEvent event) {
                 onlineStatus.postValue(OnlineStatus.CONNECTED);
                 currentUser.postValue(event.me);
+                // the previous user of the device must not see their messages
+                if (event.me != null) MessageListSnapshotStore.deleteOtherUsers(context, event.me.getId());
             }
 
             @Override
@@ -1,9 +1,29 @@
 package com.getstream.sdk.chat;
 
+import android.text.Spanned;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 public interface ChatMarkdown {
     void setText(@NonNull TextView textView, @NonNull String text);
+
+    /**
+     * renders the text without a view, it is called on a background thread
+     *
+     * @return the rendered text, null if this implementation can only render into a view, in that
+     * case {@link #setText(TextView, String)} is called on the main thread
+     */
+    @Nullable
+    default Spanned render(@NonNull String text) {
+        return null;
+    }
+
+    /**
+     * shows text returned by {@link #render(String)}
+     */
+    default void setRendered(@NonNull TextView textView, @NonNull Spanned rendered) {
+        textView.setText(rendered);
+    }
 }
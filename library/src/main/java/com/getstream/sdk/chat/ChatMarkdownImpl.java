@@ -1,9 +1,12 @@
 package com.getstream.sdk.chat;
 
 import android.content.Context;
+import android.text.Spanned;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
 import io.noties.markwon.Markwon;
 import io.noties.markwon.core.CorePlugin;
 import io.noties.markwon.ext.strikethrough.StrikethroughPlugin;
@@ -34,10 +37,38 @@ class ChatMarkdownImpl implements ChatMarkdown {
                 .usePlugin(LinkifyPlugin.create())
                 .usePlugin(ImagesPlugin.create())
                 .usePlugin(StrikethroughPlugin.create())
+                .textSetter(ChatMarkdownImpl::setText)
                 .build();
     }
 
     public void setText(@NonNull TextView textView, @NonNull String text) {
         markwon.setMarkdown(textView, text);
     }
+
+    /**
+     * text measured ahead of time is set with its measurements, they are only used when the
+     * text metrics of the view didn't change since
+     */
+    private static void setText(@NonNull TextView textView,
+                                @NonNull Spanned markdown,
+                                @NonNull TextView.BufferType bufferType,
+                                @NonNull Runnable onComplete) {
+        if (markdown instanceof PrecomputedTextCompat) {
+            TextViewCompat.setPrecomputedText(textView, (PrecomputedTextCompat) markdown);
+        } else {
+            textView.setText(markdown, bufferType);
+        }
+        onComplete.run();
+    }
+
+    @Override
+    public Spanned render(@NonNull String text) {
+        return markwon.toMarkdown(text);
+    }
+
+    @Override
+    public void setRendered(@NonNull TextView textView, @NonNull Spanned rendered) {
+        // schedules the image drawables and applies the span stylings
+        markwon.setParsedMarkdown(textView, rendered);
+    }
 }
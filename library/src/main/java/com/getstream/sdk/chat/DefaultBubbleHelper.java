@@ -1,6 +1,7 @@
 package com.getstream.sdk.chat;
 
 import android.content.Context;
+import android.content.res.Resources;
 import android.graphics.drawable.Drawable;
 import android.text.TextUtils;
 
@@ -9,131 +10,196 @@ import com.getstream.sdk.chat.model.ModelType;
 import com.getstream.sdk.chat.view.MessageListView;
 import com.getstream.sdk.chat.view.MessageListViewStyle;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import io.getstream.chat.android.client.models.Attachment;
 import io.getstream.chat.android.client.models.Message;
 import top.defaults.drawabletoolbox.DrawableBuilder;
 
+/**
+ * Bubble backgrounds drawn from the {@link MessageListViewStyle}.
+ * <p>
+ * A bubble is fully described by its colors, stroke and corner radii. Every distinct bubble is built
+ * once and its {@link Drawable.ConstantState} is kept, binds get a drawable sharing that state
+ * instead of a new one built from scratch.
+ */
 public class DefaultBubbleHelper {
-    private static int topLeftRadius, topRightRadius, bottomRightRadius, bottomLeftRadius;
-    private static int bgColor, strokeColor, strokeWidth;
 
     public static MessageListView.BubbleHelper initDefaultBubbleHelper(MessageListViewStyle style, Context context) {
-        return new MessageListView.BubbleHelper() {
-            @Override
-            public Drawable getDrawableForMessage(Message message, Boolean mine, List<MessageViewHolderFactory.Position> positions) {
-                if (style.getMessageBubbleDrawable(mine) != -1)
-                    return context.getDrawable(style.getMessageBubbleDrawable(mine));
-
-                configParams(style, mine, false);
-                if (isDefaultBubble(style, mine, context))
-                    applyStyleDefault(positions, mine, context);
-                if (mine) {
-                    // set background for Failed or Error message
-                    //if (message.getSyncStatus() == Sync.LOCAL_FAILED
-                    //TODO: llc: check cache
-                    if(message.getType().equals(ModelType.message_error))
-                        bgColor = context.getResources().getColor(R.color.stream_message_failed);
-                }
-                return getBubbleDrawable();
-            }
+        return new CachingBubbleHelper(style, context);
+    }
 
-            @Override
-            public Drawable getDrawableForAttachment(Message message, Boolean mine, List<MessageViewHolderFactory.Position> positions, Attachment attachment) {
-                if (attachment == null
-                        || attachment.getType().equals(ModelType.attach_unknown))
-                    return null;
-
-                if (style.getMessageBubbleDrawable(mine) != -1)
-                    return context.getDrawable(style.getMessageBubbleDrawable(mine));
-
-                configParams(style, mine, true);
-                if (isDefaultBubble(style, mine, context))
-                    applyStyleDefault(positions, mine, context);
-
-                // set corner radius if the attachment has title or description
-                if (!TextUtils.isEmpty(attachment.getTitle()) && !attachment.getType().equals(ModelType.attach_file))
-                    bottomLeftRadius = bottomRightRadius = 0;
-                // set corner radius if the attachment is not first
-                if (message.getAttachments().indexOf(attachment) != 0){
-                    if (mine)
-                        topRightRadius = 0;
-                    else
-                        topLeftRadius = 0;
-                }
-                return getBubbleDrawable();
+    private static class CachingBubbleHelper implements MessageListView.BubbleHelper {
+
+        private final MessageListViewStyle style;
+        private final Context context;
+        private final Resources resources;
+        private final Map<Shape, Drawable.ConstantState> cache = new HashMap<>();
+
+        // resources are read once, they don't change for the lifetime of the helper
+        private final int radius1;
+        private final int radius2;
+        private final int failedColor;
+        private final boolean defaultBubbleMine;
+        private final boolean defaultBubbleTheirs;
+
+        CachingBubbleHelper(MessageListViewStyle style, Context context) {
+            this.style = style;
+            this.context = context;
+            this.resources = context.getResources();
+            this.radius1 = resources.getDimensionPixelSize(R.dimen.stream_message_corner_radius1);
+            this.radius2 = resources.getDimensionPixelSize(R.dimen.stream_message_corner_radius2);
+            this.failedColor = resources.getColor(R.color.stream_message_failed);
+            this.defaultBubbleMine = isDefaultBubble(true);
+            this.defaultBubbleTheirs = isDefaultBubble(false);
+        }
+
+        @Override
+        public Drawable getDrawableForMessage(Message message, Boolean mine, List<MessageViewHolderFactory.Position> positions) {
+            if (style.getMessageBubbleDrawable(mine) != -1)
+                return context.getDrawable(style.getMessageBubbleDrawable(mine));
+
+            Shape shape = shape(mine, positions, false);
+            if (mine) {
+                // set background for Failed or Error message
+                //if (message.getSyncStatus() == Sync.LOCAL_FAILED
+                //TODO: llc: check cache
+                if (message.getType().equals(ModelType.message_error))
+                    shape.bgColor = failedColor;
             }
+            return drawable(shape);
+        }
 
-            @Override
-            public Drawable getDrawableForAttachmentDescription(Message message, Boolean mine, List<MessageViewHolderFactory.Position> positions){
-                if (style.getMessageBubbleDrawable(mine) != -1)
-                    return context.getDrawable(style.getMessageBubbleDrawable(mine));
+        @Override
+        public Drawable getDrawableForAttachment(Message message, Boolean mine, List<MessageViewHolderFactory.Position> positions, Attachment attachment) {
+            if (attachment == null
+                    || attachment.getType().equals(ModelType.attach_unknown))
+                return null;
+
+            if (style.getMessageBubbleDrawable(mine) != -1)
+                return context.getDrawable(style.getMessageBubbleDrawable(mine));
+
+            Shape shape = shape(mine, positions, true);
+
+            // set corner radius if the attachment has title or description
+            if (!TextUtils.isEmpty(attachment.getTitle()) && !attachment.getType().equals(ModelType.attach_file))
+                shape.bottomLeftRadius = shape.bottomRightRadius = 0;
+            // set corner radius if the attachment is not first
+            if (message.getAttachments().indexOf(attachment) != 0) {
+                if (mine)
+                    shape.topRightRadius = 0;
+                else
+                    shape.topLeftRadius = 0;
+            }
+            return drawable(shape);
+        }
 
-                configParams(style, mine, true);
-                if (isDefaultBubble(style, mine, context))
-                    applyStyleDefault(positions, mine, context);
+        @Override
+        public Drawable getDrawableForAttachmentDescription(Message message, Boolean mine, List<MessageViewHolderFactory.Position> positions) {
+            if (style.getMessageBubbleDrawable(mine) != -1)
+                return context.getDrawable(style.getMessageBubbleDrawable(mine));
 
-                topLeftRadius = topRightRadius = 0;
-                return getBubbleDrawable();
-            }
-        };
-    }
+            Shape shape = shape(mine, positions, true);
+            shape.topLeftRadius = shape.topRightRadius = 0;
+            return drawable(shape);
+        }
 
-    private static void configParams(MessageListViewStyle style, boolean isMine, boolean isAttachment){
-        bgColor = isAttachment ? style.getAttachmentBackgroundColor(isMine) : style.getMessageBackgroundColor(isMine);
-        strokeColor = isAttachment ? style.getAttachmentBorderColor(isMine) : style.getMessageBorderColor(isMine);
-        strokeWidth = style.getMessageBorderWidth(isMine);
-        topLeftRadius = style.getMessageTopLeftCornerRadius(isMine);
-        topRightRadius = style.getMessageTopRightCornerRadius(isMine);
-        bottomRightRadius = style.getMessageBottomRightCornerRadius(isMine);
-        bottomLeftRadius = style.getMessageBottomLeftCornerRadius(isMine);
-    }
+        private Shape shape(boolean isMine, List<MessageViewHolderFactory.Position> positions, boolean isAttachment) {
+            Shape shape = new Shape();
+            shape.bgColor = isAttachment ? style.getAttachmentBackgroundColor(isMine) : style.getMessageBackgroundColor(isMine);
+            shape.strokeColor = isAttachment ? style.getAttachmentBorderColor(isMine) : style.getMessageBorderColor(isMine);
+            shape.strokeWidth = style.getMessageBorderWidth(isMine);
+            shape.topLeftRadius = style.getMessageTopLeftCornerRadius(isMine);
+            shape.topRightRadius = style.getMessageTopRightCornerRadius(isMine);
+            shape.bottomRightRadius = style.getMessageBottomRightCornerRadius(isMine);
+            shape.bottomLeftRadius = style.getMessageBottomLeftCornerRadius(isMine);
+
+            if (isMine ? defaultBubbleMine : defaultBubbleTheirs)
+                applyStyleDefault(shape, positions, isMine);
+            return shape;
+        }
 
-    private static void applyStyleDefault(List<MessageViewHolderFactory.Position> positions, boolean isMine, Context context){
-        if (isMine){
-            topLeftRadius = context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius1);
-            bottomLeftRadius = context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius1);
-            if (positions.contains(MessageViewHolderFactory.Position.TOP)) {
-                topRightRadius = context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius1);
-                bottomRightRadius = context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius2);
+        private void applyStyleDefault(Shape shape, List<MessageViewHolderFactory.Position> positions, boolean isMine) {
+            boolean top = positions.contains(MessageViewHolderFactory.Position.TOP);
+            if (isMine) {
+                shape.topLeftRadius = radius1;
+                shape.bottomLeftRadius = radius1;
+                shape.topRightRadius = top ? radius1 : radius2;
+                shape.bottomRightRadius = radius2;
             } else {
-                topRightRadius = context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius2);
-                bottomRightRadius = context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius2);
+                shape.topRightRadius = radius1;
+                shape.bottomRightRadius = radius1;
+                shape.topLeftRadius = top ? radius1 : radius2;
+                shape.bottomLeftRadius = radius2;
             }
-        }else{
-            topRightRadius = context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius1);
-            bottomRightRadius = context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius1);
-            if (positions.contains(MessageViewHolderFactory.Position.TOP)) {
-                topLeftRadius = context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius1);
-                bottomLeftRadius = context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius2);
-            } else {
-                topLeftRadius = context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius2);
-                bottomLeftRadius = context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius2);
+        }
+
+        private boolean isDefaultBubble(boolean isMine) {
+            if (isMine)
+                return style.getMessageTopLeftCornerRadius(true) == radius1 &&
+                        style.getMessageTopRightCornerRadius(true) == radius1 &&
+                        style.getMessageBottomRightCornerRadius(true) == radius2 &&
+                        style.getMessageBottomLeftCornerRadius(true) == radius1;
+
+            return style.getMessageTopLeftCornerRadius(false) == radius1 &&
+                    style.getMessageTopRightCornerRadius(false) == radius1 &&
+                    style.getMessageBottomRightCornerRadius(false) == radius1 &&
+                    style.getMessageBottomLeftCornerRadius(false) == radius2;
+        }
+
+        private synchronized Drawable drawable(Shape shape) {
+            Drawable.ConstantState state = cache.get(shape);
+            if (state == null) {
+                Drawable drawable = new DrawableBuilder()
+                        .rectangle()
+                        .strokeColor(shape.strokeColor)
+                        .strokeWidth(shape.strokeWidth)
+                        .solidColor(shape.bgColor)
+                        .cornerRadii(shape.topLeftRadius, shape.topRightRadius, shape.bottomRightRadius, shape.bottomLeftRadius)
+                        .build();
+                state = drawable.getConstantState();
+                // drawables without a shareable state are handed out as they are
+                if (state == null) return drawable;
+                cache.put(shape, state);
+                return drawable;
             }
+            return state.newDrawable(resources);
         }
     }
 
-    private static boolean isDefaultBubble(MessageListViewStyle style, boolean isMine, Context context) {
-        if (isMine)
-            return (style.getMessageTopLeftCornerRadius(isMine) == context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius1)) &&
-                    (style.getMessageTopRightCornerRadius(isMine) == context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius1)) &&
-                    (style.getMessageBottomRightCornerRadius(isMine) == context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius2)) &&
-                    (style.getMessageBottomLeftCornerRadius(isMine) == context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius1));
-
-        return (style.getMessageTopLeftCornerRadius(isMine) == context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius1)) &&
-                (style.getMessageTopRightCornerRadius(isMine) == context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius1)) &&
-                (style.getMessageBottomRightCornerRadius(isMine) == context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius1)) &&
-                (style.getMessageBottomLeftCornerRadius(isMine) == context.getResources().getDimensionPixelSize(R.dimen.stream_message_corner_radius2));
-    }
+    /**
+     * everything a bubble is drawn from, the key of the cache
+     */
+    private static class Shape {
+        int bgColor, strokeColor, strokeWidth;
+        int topLeftRadius, topRightRadius, bottomRightRadius, bottomLeftRadius;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Shape)) return false;
+            Shape shape = (Shape) o;
+            return bgColor == shape.bgColor
+                    && strokeColor == shape.strokeColor
+                    && strokeWidth == shape.strokeWidth
+                    && topLeftRadius == shape.topLeftRadius
+                    && topRightRadius == shape.topRightRadius
+                    && bottomRightRadius == shape.bottomRightRadius
+                    && bottomLeftRadius == shape.bottomLeftRadius;
+        }
 
-    private static Drawable getBubbleDrawable(){
-        return new DrawableBuilder()
-                .rectangle()
-                .strokeColor(strokeColor)
-                .strokeWidth(strokeWidth)
-                .solidColor(bgColor)
-                .cornerRadii(topLeftRadius, topRightRadius, bottomRightRadius, bottomLeftRadius)
-                .build();
+        @Override
+        public int hashCode() {
+            int result = bgColor;
+            result = 31 * result + strokeColor;
+            result = 31 * result + strokeWidth;
+            result = 31 * result + topLeftRadius;
+            result = 31 * result + topRightRadius;
+            result = 31 * result + bottomRightRadius;
+            result = 31 * result + bottomLeftRadius;
+            return result;
+        }
     }
-}
\ No newline at end of file
+}
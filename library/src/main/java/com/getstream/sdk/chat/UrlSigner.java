@@ -1,10 +1,32 @@
 package com.getstream.sdk.chat;
 
+import com.getstream.sdk.chat.utils.ImageCacheKeys;
+
 public interface UrlSigner {
+    /**
+     * lifetime of the CDN urls returned by an upload, 14 days for the Stream CDN
+     */
+    long DEFAULT_URL_LIFETIME_MS = 14L * 24 * 60 * 60 * 1000;
+
     String signFileUrl(String url);
 
     String signImageUrl(String url);
 
+    /**
+     * @return time an uploaded url stays valid, uploads are not reused after it
+     */
+    default long getUrlLifetimeMs() {
+        return DEFAULT_URL_LIFETIME_MS;
+    }
+
+    /**
+     * @param signedUrl an url returned by {@link #signImageUrl(String)}
+     * @return the key the image is cached under, the same for every signature of an url
+     */
+    default String getImageCacheKey(String signedUrl) {
+        return ImageCacheKeys.stripSignature(signedUrl);
+    }
+
     class DefaultUrlSigner implements UrlSigner {
 
         @Override
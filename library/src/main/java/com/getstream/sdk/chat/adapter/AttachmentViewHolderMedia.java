@@ -10,11 +10,10 @@ import android.widget.ImageView;
 import android.widget.ProgressBar;
 import android.widget.TextView;
 
-import com.bumptech.glide.Glide;
-import com.getstream.sdk.chat.Chat;
 import com.getstream.sdk.chat.R;
 import com.getstream.sdk.chat.enums.GiphyAction;
 import com.getstream.sdk.chat.model.ModelType;
+import com.getstream.sdk.chat.utils.ImageLoader;
 import com.getstream.sdk.chat.utils.Utils;
 import com.getstream.sdk.chat.utils.roundedImageView.PorterShapeImageView;
 import com.getstream.sdk.chat.view.MessageListView;
@@ -172,11 +171,7 @@ public class AttachmentViewHolderMedia extends BaseAttachmentViewHolder {
         configImageThumbBackground();
 
         String imageUrl = attachment.getImageUrl();
-        Glide.with(context)
-                //.load(client.getUploadStorage().signGlideUrl(ModelType.getAssetUrl(attachment)))
-                .load(imageUrl)
-                .placeholder(R.drawable.stream_placeholder)
-                .into(iv_media_thumb);
+        ImageLoader.loadAttachment(iv_media_thumb, imageUrl, attachment.getThumbUrl(), R.drawable.stream_placeholder);
 
         if (!message.getType().equals(ModelType.message_ephemeral))
             tv_media_title.setText(attachment.getTitle());
@@ -3,6 +3,9 @@ package com.getstream.sdk.chat.adapter;
 import android.content.Context;
 import android.view.ViewGroup;
 
+import com.getstream.sdk.chat.Chat;
+import com.getstream.sdk.chat.utils.LlcMigrationUtils;
+import com.getstream.sdk.chat.utils.MarkdownCache;
 import com.getstream.sdk.chat.view.ChannelListView;
 import com.getstream.sdk.chat.view.ChannelListViewStyle;
 
@@ -65,6 +68,9 @@ public class ChannelListItemAdapter extends RecyclerView.Adapter<RecyclerView.Vi
 
         List<Channel> cloneChannelList = new ArrayList<>(new ArrayList<>(channelList));
 
+        MarkdownCache markdownCache = Chat.getInstance().getMarkdownCache();
+        for (Channel channel : cloneChannelList) markdownCache.prerender(LlcMigrationUtils.computeLastMessage(channel));
+
         final DiffUtil.DiffResult result = DiffUtil.calculateDiff(
                 new ChannelListDiffCallback(channels, cloneChannelList), true);
 
@@ -12,7 +12,6 @@ import com.getstream.sdk.chat.Chat;
 import com.getstream.sdk.chat.R;
 import com.getstream.sdk.chat.model.ModelType;
 import com.getstream.sdk.chat.utils.LlcMigrationUtils;
-import com.getstream.sdk.chat.utils.StringUtility;
 import com.getstream.sdk.chat.view.AvatarGroupView;
 import com.getstream.sdk.chat.view.ChannelListView;
 import com.getstream.sdk.chat.view.ChannelListViewStyle;
@@ -129,8 +128,7 @@ public class ChannelListItemViewHolder extends BaseChannelListItemViewHolder {
         }
 
         if (!TextUtils.isEmpty(lastMessage.getText())) {
-            String text = StringUtility.getDeletedOrMentionedText(lastMessage);
-            Chat.getInstance().getMarkdown().setText(tv_last_message, text);
+            Chat.getInstance().getMarkdownCache().bind(tv_last_message, lastMessage);
             return;
         }
 
@@ -1,17 +1,17 @@
 package com.getstream.sdk.chat.adapter;
 
 import android.content.Context;
-import android.net.Uri;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 
-import com.bumptech.glide.Glide;
+import com.getstream.sdk.chat.R;
 import com.getstream.sdk.chat.databinding.StreamItemSelectPhotoBinding;
 import com.getstream.sdk.chat.model.AttachmentMetaData;
 import com.getstream.sdk.chat.model.ModelType;
 import com.getstream.sdk.chat.utils.Constant;
 import com.getstream.sdk.chat.utils.StringUtility;
+import com.getstream.sdk.chat.utils.ThumbnailProvider;
 
 import java.io.File;
 import java.util.List;
@@ -21,13 +21,21 @@ import androidx.recyclerview.widget.RecyclerView;
 public class MediaAttachmentAdapter extends RecyclerView.Adapter<MediaAttachmentAdapter.MyViewHolder> {
 
     private final String TAG = MediaAttachmentAdapter.class.getSimpleName();
+    private static final int SPAN_COUNT = 4;
+
     private final OnItemClickListener listener;
+    private final ThumbnailProvider thumbnailProvider;
+    private final int cellSize;
     private Context context;
     private List<AttachmentMetaData> mediaPaths;
+    private int expectedCount;
+
     public MediaAttachmentAdapter(Context context, List<AttachmentMetaData> mediaPaths, OnItemClickListener listener) {
         this.context = context;
         this.mediaPaths = mediaPaths;
         this.listener = listener;
+        this.thumbnailProvider = ThumbnailProvider.getInstance(context);
+        this.cellSize = context.getResources().getDisplayMetrics().widthPixels / SPAN_COUNT;
     }
 
     @Override
@@ -43,12 +51,44 @@ public class MediaAttachmentAdapter extends RecyclerView.Adapter<MediaAttachment
 
     @Override
     public void onBindViewHolder(final MyViewHolder holder, int position) {
-        holder.bind(mediaPaths.get(position), listener);
+        if (position < mediaPaths.size())
+            holder.bind(mediaPaths.get(position), listener);
+        else
+            holder.bindPlaceholder();
     }
 
     @Override
     public int getItemCount() {
-        return mediaPaths.size();
+        return Math.max(mediaPaths.size(), expectedCount);
+    }
+
+    /**
+     * shows placeholders for the items that are still loading
+     *
+     * @param expectedCount number of items the list will have once loaded
+     */
+    public void setExpectedCount(int expectedCount) {
+        int oldCount = getItemCount();
+        this.expectedCount = expectedCount;
+        int newCount = getItemCount();
+        if (newCount > oldCount) {
+            notifyItemRangeInserted(oldCount, newCount - oldCount);
+        } else if (newCount < oldCount) {
+            notifyItemRangeRemoved(newCount, oldCount - newCount);
+        }
+    }
+
+    /**
+     * replaces placeholders with the items that were appended to the list
+     *
+     * @param start index of the first new item
+     * @param count number of new items
+     */
+    public void notifyItemsLoaded(int start, int count) {
+        int placeholders = Math.max(0, expectedCount - start);
+        int changed = Math.min(count, placeholders);
+        if (changed > 0) notifyItemRangeChanged(start, changed);
+        if (count > changed) notifyItemRangeInserted(start + changed, count - changed);
     }
 
     public interface OnItemClickListener {
@@ -65,10 +105,7 @@ public class MediaAttachmentAdapter extends RecyclerView.Adapter<MediaAttachment
 
         public void bind(AttachmentMetaData attachment, final OnItemClickListener listener) {
             File file = new File(attachment.file.getPath());
-            Uri imageUri = Uri.fromFile(file);
-            Glide.with(context)
-                    .load(imageUri)
-                    .into(binding.ivMedia);
+            thumbnailProvider.load(file, !attachment.isImage(), cellSize, binding.ivMedia, R.drawable.stream_placeholder);
 
             if (attachment.isSelected)
                 binding.ivSelectMark.setVisibility(View.VISIBLE);
@@ -87,5 +124,15 @@ public class MediaAttachmentAdapter extends RecyclerView.Adapter<MediaAttachment
             });
             binding.executePendingBindings();
         }
+
+        public void bindPlaceholder() {
+            thumbnailProvider.cancel(binding.ivMedia);
+            binding.ivMedia.setImageResource(R.drawable.stream_placeholder);
+            binding.ivSelectMark.setVisibility(View.GONE);
+            binding.ivLargeFileMark.setVisibility(View.INVISIBLE);
+            binding.tvLength.setText("");
+            itemView.setOnClickListener(null);
+            binding.executePendingBindings();
+        }
     }
 }
@@ -2,7 +2,6 @@ package com.getstream.sdk.chat.adapter;
 
 import android.content.Context;
 import android.graphics.Color;
-import android.net.Uri;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -12,7 +11,9 @@ import com.getstream.sdk.chat.R;
 import com.getstream.sdk.chat.databinding.StreamItemAttachedMediaBinding;
 import com.getstream.sdk.chat.model.AttachmentMetaData;
 import com.getstream.sdk.chat.model.ModelType;
+import com.getstream.sdk.chat.utils.ImageLoader;
 import com.getstream.sdk.chat.utils.StringUtility;
+import com.getstream.sdk.chat.utils.ThumbnailProvider;
 
 import java.io.File;
 import java.util.List;
@@ -24,6 +25,8 @@ import top.defaults.drawabletoolbox.DrawableBuilder;
 public class MediaAttachmentSelectedAdapter extends RecyclerView.Adapter<MediaAttachmentSelectedAdapter.MyViewHolder> {
 
     private final String TAG = MediaAttachmentSelectedAdapter.class.getSimpleName();
+    private final ThumbnailProvider thumbnailProvider;
+    private final int thumbnailSize;
     private OnAttachmentCancelListener cancelListener;
     private Context context;
     private List<AttachmentMetaData> attachments;
@@ -31,6 +34,8 @@ public class MediaAttachmentSelectedAdapter extends RecyclerView.Adapter<MediaAt
     public MediaAttachmentSelectedAdapter(Context context, List<AttachmentMetaData> attachments) {
         this.context = context;
         this.attachments = attachments;
+        this.thumbnailProvider = ThumbnailProvider.getInstance(context);
+        this.thumbnailSize = context.getResources().getDimensionPixelSize(R.dimen.stream_input_upload_media_size);
     }
 
     public MediaAttachmentSelectedAdapter(Context context,
@@ -81,23 +86,30 @@ public class MediaAttachmentSelectedAdapter extends RecyclerView.Adapter<MediaAt
                     .cornerRadii(cornerRadius, cornerRadius, cornerRadius, cornerRadius)
                     .build());
 
+            Glide.with(context).clear(binding.ivMedia);
+            thumbnailProvider.cancel(binding.ivMedia);
             if (attachment.file != null && attachment.file.getPath() != null) {
                 File file = new File(attachment.file.getPath());
                 if (file.exists()) {
-                    Uri imageUri = Uri.fromFile(file);
-                    Glide.with(context)
-                            .load(imageUri)
-                            .into(binding.ivMedia);
+                    // a captured video brings its own poster
+                    boolean hasPoster = attachment.thumbnail != null && attachment.thumbnail.exists();
+                    thumbnailProvider.load(hasPoster ? attachment.thumbnail : file,
+                            !hasPoster && !attachment.isImage(),
+                            thumbnailSize,
+                            binding.ivMedia,
+                            R.drawable.stream_placeholder);
                 }
             } else if (attachment.isUploaded()) {
-                Glide.with(context)
-                        .load(attachment.attachment.getUrl())
-                        //TODO: llc check signing
-                        //.load(StreamChat.getInstance().getUploadStorage().signGlideUrl(attachment.getImageURL()))
+                ImageLoader.request(context, attachment.attachment.getUrl())
                         .into(binding.ivMedia);
             } else {
                 try {
-                    if (attachment.mimeType.equals(ModelType.attach_mime_mov) ||
+                    if (attachment.thumbnail != null) {
+                        Glide.with(context)
+                                .load(attachment.thumbnail)
+                                .placeholder(R.drawable.stream_placeholder)
+                                .into(binding.ivMedia);
+                    } else if (attachment.mimeType.equals(ModelType.attach_mime_mov) ||
                             attachment.mimeType.equals(ModelType.attach_mime_mp4)) {
                         binding.ivMedia.setImageResource(R.drawable.stream_placeholder);
                     }
@@ -1,20 +1,33 @@
 package com.getstream.sdk.chat.adapter;
 
 import android.content.Context;
+import android.text.TextUtils;
 import android.view.ViewGroup;
 
+import com.bumptech.glide.RequestBuilder;
+import com.getstream.sdk.chat.Chat;
+import com.getstream.sdk.chat.model.ModelType;
+import com.getstream.sdk.chat.utils.ImageLoader;
+import com.getstream.sdk.chat.utils.ImagePrefetcher;
+import com.getstream.sdk.chat.utils.MarkdownCache;
+import com.getstream.sdk.chat.utils.Utils;
 import com.getstream.sdk.chat.view.MessageListView;
 import com.getstream.sdk.chat.view.MessageListViewStyle;
 
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
+import io.getstream.chat.android.client.models.Attachment;
 import io.getstream.chat.android.client.models.Channel;
+import io.getstream.chat.android.client.models.Message;
+import io.getstream.chat.android.client.models.User;
 
 public class MessageListItemAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
 
@@ -35,6 +48,13 @@ public class MessageListItemAdapter extends RecyclerView.Adapter<RecyclerView.Vi
     private int itemLayoutId;
     private MessageViewHolderFactory viewHolderFactory;
     private MessageListView.BubbleHelper bubbleHelper;
+    // the reaction strips of all the messages share their emoji views
+    private final RecyclerView.RecycledViewPool reactionViewPool = new RecyclerView.RecycledViewPool();
+    private ImagePrefetcher<MessageListItem> imagePrefetcher;
+    // the last prefetched range, the prefetch is skipped while it doesn't change
+    private int imagePrefetchFrom = -1;
+    private int imagePrefetchTo = -1;
+    private List<MessageListItem> imagePrefetchItems;
 
     public MessageListItemAdapter(Context context, Channel channel, @NonNull List<MessageListItem> messageListItemList) {
         this.context = context;
@@ -86,6 +106,10 @@ public class MessageListItemAdapter extends RecyclerView.Adapter<RecyclerView.Vi
     }
 
     public void replaceEntities(List<MessageListItem> newEntities) {
+        // renders the markdown of new and edited messages before they are bound
+        MarkdownCache markdownCache = Chat.getInstance().getMarkdownCache();
+        for (MessageListItem item : newEntities) markdownCache.prerender(item.getMessage());
+
         final DiffUtil.DiffResult result = DiffUtil.calculateDiff(
                 new MessageListItemDiffCallback(messageListItemList, newEntities), true);
 
@@ -95,6 +119,82 @@ public class MessageListItemAdapter extends RecyclerView.Adapter<RecyclerView.Vi
 
     }
 
+    /**
+     * measures the text of the messages in the range ahead of time, positions outside of the list
+     * are ignored
+     */
+    public void prefetchText(int from, int to) {
+        MarkdownCache markdownCache = Chat.getInstance().getMarkdownCache();
+        int end = Math.min(to, messageListItemList.size() - 1);
+        for (int i = Math.max(0, from); i <= end; i++) {
+            MessageListItem item = messageListItemList.get(i);
+            if (item.getMessage() != null) markdownCache.prefetchLayout(item.getMessage(), item.isMine());
+        }
+    }
+
+    /**
+     * loads the avatars and media attachments of the messages in the range ahead of time and cancels
+     * the loads of the messages outside of it, positions outside of the list are ignored
+     *
+     * @param upwards the list scrolls towards the start, the messages at the end of the range are
+     *                loaded first
+     */
+    public void prefetchImages(int from, int to, boolean upwards) {
+        int start = Math.max(0, from);
+        int end = Math.min(to, messageListItemList.size() - 1);
+        if (start == imagePrefetchFrom && end == imagePrefetchTo && messageListItemList == imagePrefetchItems)
+            return;
+        imagePrefetchFrom = start;
+        imagePrefetchTo = end;
+        imagePrefetchItems = messageListItemList;
+
+        if (imagePrefetcher == null)
+            imagePrefetcher = new ImagePrefetcher<>(context, this::addImageRequests);
+        List<MessageListItem> items = new ArrayList<>();
+        for (int i = start; i <= end; i++) items.add(messageListItemList.get(i));
+        if (upwards) Collections.reverse(items);
+        imagePrefetcher.prefetch(items);
+    }
+
+    /**
+     * cancels the running image loads, e.g. when the list is detached or gets another adapter
+     */
+    public void cancelImagePrefetch() {
+        imagePrefetchFrom = -1;
+        imagePrefetchTo = -1;
+        imagePrefetchItems = null;
+        if (imagePrefetcher != null) imagePrefetcher.cancel();
+    }
+
+    /**
+     * the requests of the images a message view loads, sized like in the views so the prefetched
+     * images are found in the memory cache
+     */
+    private void addImageRequests(MessageListItem item, Map<String, RequestBuilder<?>> requests) {
+        Message message = item.getMessage();
+        if (message == null || message.getDeletedAt() != null) return;
+
+        User user = message.getUser();
+        String image = user == null ? null : user.getExtraValue("image", "");
+        if (style != null && !TextUtils.isEmpty(image) && !Utils.isSVGImage(image)) {
+            int width = style.getAvatarWidth();
+            int height = style.getAvatarHeight();
+            requests.put("avatar|" + width + "x" + height + "|" + image,
+                    ImageLoader.avatarRequest(context, image, width, height));
+        }
+
+        if (message.getAttachments() == null) return;
+        for (Attachment attachment : message.getAttachments()) {
+            String type = attachment.getType();
+            if (!ModelType.attach_image.equals(type)
+                    && !ModelType.attach_giphy.equals(type)
+                    && !ModelType.attach_video.equals(type)) continue;
+            String url = attachment.getImageUrl();
+            if (TextUtils.isEmpty(url)) continue;
+            requests.put("attachment|" + url, ImageLoader.attachmentRequest(context, url, null));
+        }
+    }
+
     @Override
     public int getItemViewType(int position) {
         try {
@@ -109,7 +209,10 @@ public class MessageListItemAdapter extends RecyclerView.Adapter<RecyclerView.Vi
     @Override
     public RecyclerView.ViewHolder onCreateViewHolder(@NotNull ViewGroup parent,
                                                       int viewType) {
-        return this.viewHolderFactory.createMessageViewHolder(this, parent, viewType);
+        RecyclerView.ViewHolder holder = this.viewHolderFactory.createMessageViewHolder(this, parent, viewType);
+        if (holder instanceof MessageListItemViewHolder)
+            ((MessageListItemViewHolder) holder).setReactionViewPool(reactionViewPool);
+        return holder;
     }
 
 
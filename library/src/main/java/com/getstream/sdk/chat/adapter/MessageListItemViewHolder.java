@@ -19,7 +19,6 @@ import android.widget.Space;
 import android.widget.TextView;
 
 import com.getstream.sdk.chat.Chat;
-import com.getstream.sdk.chat.ChatMarkdown;
 import com.getstream.sdk.chat.R;
 import com.getstream.sdk.chat.model.ModelType;
 import com.getstream.sdk.chat.navigation.destinations.WebLinkDestination;
@@ -69,6 +68,7 @@ public class MessageListItemViewHolder extends BaseMessageListItemViewHolder {
     protected TextView tv_reply;
 
     protected RecyclerView.LayoutManager mLayoutManager;
+    protected ReactionListItemAdapter reactionAdapter;
 
     protected Channel channel;
     protected MessageListViewStyle style;
@@ -91,6 +91,7 @@ public class MessageListItemViewHolder extends BaseMessageListItemViewHolder {
 
     protected ConstraintSet set;
 
+    @SuppressLint("ClickableViewAccessibility")
     public MessageListItemViewHolder(int resId, ViewGroup viewGroup) {
         super(resId, viewGroup);
 
@@ -122,6 +123,18 @@ public class MessageListItemViewHolder extends BaseMessageListItemViewHolder {
         mLayoutManager = new LinearLayoutManager(context, RecyclerView.HORIZONTAL, false);
         rv_reaction.setLayoutManager(mLayoutManager);
         rv_reaction.setHasFixedSize(true);
+        rv_reaction.setOnTouchListener((View v, MotionEvent event) -> {
+            if (event.getAction() == MotionEvent.ACTION_UP && reactionViewClickListener != null)
+                reactionViewClickListener.onReactionViewClick(message);
+            return false;
+        });
+    }
+
+    /**
+     * @param pool the pool of emoji views shared by the reaction strips of a list
+     */
+    public void setReactionViewPool(@NonNull RecyclerView.RecycledViewPool pool) {
+        rv_reaction.setRecycledViewPool(pool);
     }
 
     @Override
@@ -345,10 +358,10 @@ public class MessageListItemViewHolder extends BaseMessageListItemViewHolder {
             return;
         }
         tv_text.setVisibility(View.VISIBLE);
+        // Set Style, before the text so that measured text matches it
+        configMessageTextStyle();
         // Set Text
         configMessageTextViewText();
-        // Set Style
-        configMessageTextStyle();
         // Set Background
         configMessageTextBackground();
         // Set Click Listener
@@ -372,9 +385,7 @@ public class MessageListItemViewHolder extends BaseMessageListItemViewHolder {
             return;
         }
 
-        String text = StringUtility.getDeletedOrMentionedText(message);
-        ChatMarkdown markdown = Chat.getInstance().getMarkdown();
-        markdown.setText(tv_text, text);
+        Chat.getInstance().getMarkdownCache().bind(tv_text, message, messageListItem.isMine());
     }
 
     protected void configMessageTextStyle() {
@@ -464,7 +475,6 @@ public class MessageListItemViewHolder extends BaseMessageListItemViewHolder {
         attachmentview.setLongClickListener(messageLongClickListener);
     }
 
-    @SuppressLint("ClickableViewAccessibility")
     protected void configReactionView() {
         if (isDeletedMessage()
                 || isFailedMessage()
@@ -481,15 +491,13 @@ public class MessageListItemViewHolder extends BaseMessageListItemViewHolder {
         rv_reaction.setVisibility(View.VISIBLE);
         iv_tail.setVisibility(View.VISIBLE);
         space_reaction_tail.setVisibility(View.VISIBLE);
-        rv_reaction.setAdapter(new ReactionListItemAdapter(context,
-                message.getReactionCounts(),
-                LlcMigrationUtils.getReactionTypes(),
-                style));
-        rv_reaction.setOnTouchListener((View v, MotionEvent event) -> {
-            if (event.getAction() == MotionEvent.ACTION_UP)
-                reactionViewClickListener.onReactionViewClick(message);
-            return false;
-        });
+        if (reactionAdapter == null || reactionAdapter.getStyle() != style) {
+            reactionAdapter = new ReactionListItemAdapter(context,
+                    LlcMigrationUtils.getReactionTypes(),
+                    style);
+            rv_reaction.setAdapter(reactionAdapter);
+        }
+        reactionAdapter.setReactionCounts(message.getReactionCounts());
     }
 
     protected void configReplyView() {
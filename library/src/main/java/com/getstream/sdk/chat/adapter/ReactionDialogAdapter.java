@@ -8,6 +8,7 @@ import android.widget.TextView;
 
 import com.getstream.sdk.chat.Chat;
 import com.getstream.sdk.chat.R;
+import com.getstream.sdk.chat.storage.Outbox;
 import com.getstream.sdk.chat.utils.LlcMigrationUtils;
 import com.getstream.sdk.chat.view.MessageListViewStyle;
 
@@ -52,7 +53,7 @@ public class ReactionDialogAdapter extends RecyclerView.Adapter<ReactionDialogAd
     @Override
     public void onBindViewHolder(final ReactionViewHolder holder, int position) {
         applyStyle(holder);
-        String key = (String) reactionTypes.keySet().toArray()[position];
+        String key = LlcMigrationUtils.getReactionTypeKeys().get(position);
         holder.bind(key, position);
     }
 
@@ -102,7 +103,7 @@ public class ReactionDialogAdapter extends RecyclerView.Adapter<ReactionDialogAd
         @Override
         public void onClick(View v) {
 
-            String type = (String) reactionTypes.keySet().toArray()[getLayoutPosition()];
+            String type = LlcMigrationUtils.getReactionTypeKeys().get(getLayoutPosition());
             List<Reaction> ownReactions = message.getOwnReactions();
             boolean isReacted = false;
 
@@ -132,7 +133,8 @@ public class ReactionDialogAdapter extends RecyclerView.Adapter<ReactionDialogAd
                 if (reactionResult.isSuccess()) {
                     notifyItemChanged(position);
                 } else {
-                    //TODO: add error message
+                    Outbox outbox = Chat.getInstance().getOutbox();
+                    if (outbox != null) outbox.enqueueReaction(message.getCid(), message.getId(), type);
                 }
 
 
@@ -149,7 +151,8 @@ public class ReactionDialogAdapter extends RecyclerView.Adapter<ReactionDialogAd
                 if (messageResult.isSuccess()) {
                     notifyItemChanged(position);
                 } else {
-                    //TODO: add error message
+                    Outbox outbox = Chat.getInstance().getOutbox();
+                    if (outbox != null) outbox.enqueueDeleteReaction(message.getCid(), message.getId(), type);
                 }
 
                 return null;
@@ -8,37 +8,96 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import com.getstream.sdk.chat.R;
+import com.getstream.sdk.chat.utils.LlcMigrationUtils;
 import com.getstream.sdk.chat.view.MessageListViewStyle;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
+import androidx.annotation.NonNull;
 import androidx.constraintlayout.widget.ConstraintLayout;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 import io.getstream.chat.android.client.logger.ChatLogger;
 
+/**
+ * Shows the reactions of a message, one emoji per reaction type followed by the total count.
+ * <p>
+ * The reaction types are ordered like {@link LlcMigrationUtils#getReactionTypeKeys()}, so a view
+ * holder can keep its adapter and only dispatch the difference when the counts change.
+ */
 public class ReactionListItemAdapter extends RecyclerView.Adapter<ReactionListItemAdapter.MyViewHolder> {
 
     private final String TAG = ReactionListItemAdapter.class.getSimpleName();
 
     private Context context;
-    private List<String> reactions = new ArrayList<>();
+    private List<String> reactions = Collections.emptyList();
     private int reactionCount;
     private Map<String, String> reactionTypes;
     private MessageListViewStyle style;
 
     public ReactionListItemAdapter(Context context, Map<String, Integer> reactionCountMap, Map<String, String> reactionTypes, MessageListViewStyle style) {
+        this(context, reactionTypes, style);
+        setReactionCounts(reactionCountMap);
+    }
+
+    public ReactionListItemAdapter(Context context, Map<String, String> reactionTypes, MessageListViewStyle style) {
         this.context = context;
         this.reactionTypes = reactionTypes;
         this.style = style;
-        Set keys = reactionCountMap.keySet();
-        reactionCount = 0;
-        for (Object key : keys) {
-            this.reactions.add(key.toString());
-            reactionCount += reactionCountMap.get(key);
+    }
+
+    public MessageListViewStyle getStyle() {
+        return style;
+    }
+
+    /**
+     * shows the given counts, only the reactions and the total that changed are rebound
+     */
+    public void setReactionCounts(@NonNull Map<String, Integer> reactionCountMap) {
+        List<String> newReactions = new ArrayList<>(reactionCountMap.size());
+        for (String type : LlcMigrationUtils.getReactionTypeKeys()) {
+            if (reactionCountMap.containsKey(type)) newReactions.add(type);
         }
+        int newReactionCount = 0;
+        for (Map.Entry<String, Integer> entry : reactionCountMap.entrySet()) {
+            // custom types go after the known ones
+            if (!newReactions.contains(entry.getKey())) newReactions.add(entry.getKey());
+            if (entry.getValue() != null) newReactionCount += entry.getValue();
+        }
+
+        List<String> oldReactions = reactions;
+        int oldReactionCount = reactionCount;
+        reactions = newReactions;
+        reactionCount = newReactionCount;
+
+        DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return oldReactions.size() + 1;
+            }
+
+            @Override
+            public int getNewListSize() {
+                return newReactions.size() + 1;
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+                boolean oldTotal = oldItemPosition == oldReactions.size();
+                boolean newTotal = newItemPosition == newReactions.size();
+                if (oldTotal || newTotal) return oldTotal == newTotal;
+                return oldReactions.get(oldItemPosition).equals(newReactions.get(newItemPosition));
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+                // an emoji only depends on its type
+                return oldItemPosition != oldReactions.size() || oldReactionCount == newReactionCount;
+            }
+        }, false).dispatchUpdatesTo(this);
     }
 
     @Override
@@ -14,9 +14,18 @@ public class AttachmentMetaData {
     public int videoLength;
     public int progress;
     public File file;
+    /**
+     * the selected file while {@link #file} is a copy prepared for the upload, a shrunk image or a transcoded video;
+     * the attachment points to it again once the upload is done
+     */
+    public File source;
     public String type;
     public String mimeType;
     public String title;
+    /**
+     * local preview of a video, uploaded together with it
+     */
+    public File thumbnail;
 
     public AttachmentMetaData(Attachment attachment) {
         this.attachment = attachment;
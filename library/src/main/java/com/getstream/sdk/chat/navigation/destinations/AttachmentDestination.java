@@ -4,6 +4,7 @@ import android.content.Context;
 import android.content.Intent;
 import android.text.TextUtils;
 
+import com.getstream.sdk.chat.Chat;
 import com.getstream.sdk.chat.R;
 import com.getstream.sdk.chat.model.ModelType;
 import com.getstream.sdk.chat.utils.Utils;
@@ -81,7 +82,7 @@ public class AttachmentDestination extends ChatDestination {
                     for (Attachment a : message.getAttachments()) {
                         if (!a.getType().equals(ModelType.attach_image) || TextUtils.isEmpty(a.getImageUrl()))
                             continue;
-                        imageUrls.add(a.getImageUrl());
+                        imageUrls.add(Chat.getInstance().urlSigner().signImageUrl(a.getImageUrl()));
                     }
                     if (imageUrls.isEmpty()) {
                         Utils.showMessage(context, "Invalid image(s)!");
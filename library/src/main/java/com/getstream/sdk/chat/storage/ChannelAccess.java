@@ -0,0 +1,48 @@
+package com.getstream.sdk.chat.storage;
+
+import com.getstream.sdk.chat.storage.converter.DateConverter;
+
+import java.util.Date;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+import androidx.room.TypeConverters;
+
+/**
+ * Tracks when a channel was last opened, used by {@link StorageManager} to pick eviction candidates
+ */
+@Entity(tableName = "stream_channel_access")
+@TypeConverters(DateConverter.class)
+public class ChannelAccess {
+
+    @PrimaryKey
+    @NonNull
+    private String cid;
+
+    @ColumnInfo(name = "opened_at")
+    private Date openedAt;
+
+    public ChannelAccess(@NonNull String cid, Date openedAt) {
+        this.cid = cid;
+        this.openedAt = openedAt;
+    }
+
+    @NonNull
+    public String getCid() {
+        return cid;
+    }
+
+    public void setCid(@NonNull String cid) {
+        this.cid = cid;
+    }
+
+    public Date getOpenedAt() {
+        return openedAt;
+    }
+
+    public void setOpenedAt(Date openedAt) {
+        this.openedAt = openedAt;
+    }
+}
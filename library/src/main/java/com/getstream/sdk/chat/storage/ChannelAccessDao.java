@@ -0,0 +1,29 @@
+package com.getstream.sdk.chat.storage;
+
+import java.util.List;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+@Dao
+public interface ChannelAccessDao {
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertChannelAccess(ChannelAccess access);
+
+    /**
+     * channels that have messages stored, least recently opened first.
+     * channels that were never opened are placed by their newest message instead
+     */
+    @Query("SELECT stream_message.cid FROM stream_message " +
+            "LEFT JOIN stream_channel_access ON stream_channel_access.cid = stream_message.cid " +
+            "GROUP BY stream_message.cid " +
+            "ORDER BY COALESCE(stream_channel_access.opened_at, MAX(stream_message.created_at)) ASC, " +
+            "stream_message.cid ASC")
+    List<String> getChannelsLeastRecentlyOpened();
+
+    @Query("DELETE FROM stream_channel_access WHERE stream_channel_access.cid = :cid")
+    void deleteChannelAccess(final String cid);
+}
@@ -0,0 +1,121 @@
+package com.getstream.sdk.chat.storage;
+
+import com.getstream.sdk.chat.storage.converter.DateConverter;
+import com.google.gson.Gson;
+
+import java.util.Date;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.PrimaryKey;
+import androidx.room.TypeConverters;
+import io.getstream.chat.android.client.models.Channel;
+
+/**
+ * A stored channel, the columns the queries need and the channel itself as json. Its messages
+ * are stored as {@link MessageEntity}
+ */
+@Entity(tableName = "stream_channel")
+@TypeConverters(DateConverter.class)
+public class ChannelEntity {
+
+    static Gson gson = new Gson();
+
+    @PrimaryKey
+    @NonNull
+    private String cid;
+
+    private String type;
+
+    @ColumnInfo(name = "last_message_at")
+    private Date lastMessageAt;
+
+    @ColumnInfo(name = "updated_at")
+    private Date updatedAt;
+
+    private String data;
+
+    public ChannelEntity(@NonNull String cid, String type) {
+        this.cid = cid;
+        this.type = type;
+    }
+
+    @Ignore
+    public ChannelEntity(@NonNull Channel channel) {
+        this(channel.getCid(), channel.getType());
+        this.lastMessageAt = channel.getLastMessageAt();
+        this.updatedAt = channel.getUpdatedAt();
+        this.data = gson.toJson(copy(channel));
+    }
+
+    @NonNull
+    public Channel toChannel() {
+        Channel channel = data == null ? new Channel() : gson.fromJson(data, Channel.class);
+        channel.setCid(cid);
+        channel.setType(type);
+        return channel;
+    }
+
+    /**
+     * the channel without its messages, they reference the channel again
+     */
+    private static Channel copy(Channel channel) {
+        Channel copy = new Channel();
+        copy.setCid(channel.getCid());
+        copy.setId(channel.getId());
+        copy.setType(channel.getType());
+        copy.setCreatedAt(channel.getCreatedAt());
+        copy.setUpdatedAt(channel.getUpdatedAt());
+        copy.setDeletedAt(channel.getDeletedAt());
+        copy.setLastMessageAt(channel.getLastMessageAt());
+        copy.setMembers(channel.getMembers());
+        copy.setWatcherCount(channel.getWatcherCount());
+        copy.setCreatedBy(channel.getCreatedBy());
+        copy.getRead().addAll(channel.getRead());
+        copy.getExtraData().putAll(channel.getExtraData());
+        return copy;
+    }
+
+    @NonNull
+    public String getCid() {
+        return cid;
+    }
+
+    public void setCid(@NonNull String cid) {
+        this.cid = cid;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Date getLastMessageAt() {
+        return lastMessageAt;
+    }
+
+    public void setLastMessageAt(Date lastMessageAt) {
+        this.lastMessageAt = lastMessageAt;
+    }
+
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Date updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public String getData() {
+        return data;
+    }
+
+    public void setData(String data) {
+        this.data = data;
+    }
+}
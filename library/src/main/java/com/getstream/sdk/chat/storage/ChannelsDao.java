@@ -6,7 +6,6 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
-import io.getstream.chat.android.client.models.Channel;
 
 @Dao
 public interface ChannelsDao {
@@ -17,18 +16,18 @@ public interface ChannelsDao {
      */
 
     @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertChannel(Channel channel);
+    void insertChannel(ChannelEntity channel);
 
     @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertChannels(List<Channel> channels);
+    void insertChannels(List<ChannelEntity> channels);
 
     @Query("SELECT * FROM stream_channel " +
             "WHERE stream_channel.cid IN (:cids)")
-    List<Channel> getChannels(final List<String> cids);
+    List<ChannelEntity> getChannels(final List<String> cids);
 
     @Query("SELECT * FROM stream_channel " +
             "WHERE stream_channel.cid IN (:cid)")
-    Channel getChannel(final String cid);
+    ChannelEntity getChannel(final String cid);
 
     @Query("DELETE FROM stream_channel WHERE stream_channel.cid IN (:cid)")
     void deleteChannel(final String cid);
@@ -0,0 +1,118 @@
+package com.getstream.sdk.chat.storage;
+
+import android.content.Context;
+
+import com.getstream.sdk.chat.storage.converter.DateConverter;
+
+import java.util.concurrent.Executors;
+
+import androidx.annotation.NonNull;
+import androidx.room.Database;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+import androidx.room.TypeConverters;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Offline database for channels, messages and users.
+ * <p>
+ * Chat traffic is a stream of small writes coming from the socket mixed with bursts of reads when
+ * the user switches channel, use {@link Builder} to get a database tuned for that workload.
+ * Channels, messages and users are stored with the columns the queries need and the model as
+ * json, see {@link ChannelEntity}, {@link MessageEntity} and {@link UserEntity}.
+ */
+@Database(entities = {
+        ChannelEntity.class,
+        MessageEntity.class,
+        UserEntity.class,
+        ChannelAccess.class,
+        PendingOperation.class
+}, version = 1, exportSchema = false)
+@TypeConverters(DateConverter.class)
+public abstract class ChatDatabase extends RoomDatabase {
+
+    public static final String DEFAULT_NAME = "stream_chat.db";
+
+    public abstract ChannelsDao channelsDao();
+
+    public abstract MessageDao messageDao();
+
+    public abstract UsersDao usersDao();
+
+    public abstract ChannelAccessDao channelAccessDao();
+
+    public abstract PendingOperationDao pendingOperationDao();
+
+    public static class Builder {
+
+        private final Context context;
+        private String name = DEFAULT_NAME;
+        private boolean writeAheadLogging = true;
+        private boolean synchronousNormal = true;
+        private int readerThreads = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+        public Builder(@NonNull Context context) {
+            this.context = context.getApplicationContext();
+        }
+
+        /**
+         * @param name the database file name, {@link #DEFAULT_NAME} by default
+         */
+        public Builder name(@NonNull String name) {
+            this.name = name;
+            return this;
+        }
+
+        /**
+         * enables write-ahead logging (on by default): readers no longer block on the socket
+         * writes and every write appends to the log instead of rewriting the journal
+         */
+        public Builder writeAheadLogging(boolean enabled) {
+            this.writeAheadLogging = enabled;
+            return this;
+        }
+
+        /**
+         * sets synchronous=NORMAL (on by default). With write-ahead logging the database stays
+         * consistent after a crash, only the last transactions before a power loss can be lost,
+         * and those are re-synced from the API anyway
+         */
+        public Builder synchronousNormal(boolean enabled) {
+            this.synchronousNormal = enabled;
+            return this;
+        }
+
+        /**
+         * @param readerThreads number of threads that run queries. Room has no setting for the
+         *                      size of the SQLite connection pool: with write-ahead logging the
+         *                      platform opens reader connections up to its own limit and a query
+         *                      waits for a free one, so threads beyond that limit don't add readers
+         */
+        public Builder readerThreads(int readerThreads) {
+            if (readerThreads < 1) throw new IllegalArgumentException("readerThreads must be at least 1");
+            this.readerThreads = readerThreads;
+            return this;
+        }
+
+        public ChatDatabase build() {
+            RoomDatabase.Builder<ChatDatabase> builder = Room.databaseBuilder(context, ChatDatabase.class, name)
+                    .setJournalMode(writeAheadLogging ? JournalMode.WRITE_AHEAD_LOGGING : JournalMode.TRUNCATE)
+                    .setQueryExecutor(Executors.newFixedThreadPool(readerThreads))
+                    // sqlite allows a single writer, more threads would only wait on the lock
+                    .setTransactionExecutor(Executors.newSingleThreadExecutor())
+                    // apart from the outbox the database is a cache of the API
+                    .fallbackToDestructiveMigration();
+
+            if (synchronousNormal) {
+                builder.addCallback(new Callback() {
+                    @Override
+                    public void onOpen(@NonNull SupportSQLiteDatabase db) {
+                        db.execSQL("PRAGMA synchronous = NORMAL");
+                    }
+                });
+            }
+
+            return builder.build();
+        }
+    }
+}
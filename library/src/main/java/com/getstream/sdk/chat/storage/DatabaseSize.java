@@ -0,0 +1,54 @@
+package com.getstream.sdk.chat.storage;
+
+/**
+ * Snapshot of the offline database size as reported by {@link StorageManager}
+ */
+public class DatabaseSize {
+
+    private final long pageSize;
+    private final long pageCount;
+    private final long freePageCount;
+    private final int messageCount;
+
+    DatabaseSize(long pageSize, long pageCount, long freePageCount, int messageCount) {
+        this.pageSize = pageSize;
+        this.pageCount = pageCount;
+        this.freePageCount = freePageCount;
+        this.messageCount = messageCount;
+    }
+
+    /**
+     * @return size of the database file
+     */
+    public long getTotalBytes() {
+        return pageSize * pageCount;
+    }
+
+    /**
+     * @return bytes used by live rows and indices
+     */
+    public long getUsedBytes() {
+        return pageSize * (pageCount - freePageCount);
+    }
+
+    /**
+     * @return bytes that can be reclaimed with a vacuum
+     */
+    public long getFreeBytes() {
+        return pageSize * freePageCount;
+    }
+
+    public int getMessageCount() {
+        return messageCount;
+    }
+
+    @Override
+    public String toString() {
+        return "DatabaseSize{" +
+                "totalBytes=" + getTotalBytes() +
+                ", usedBytes=" + getUsedBytes() +
+                ", freeBytes=" + getFreeBytes() +
+                ", messageCount=" + messageCount +
+                '}';
+    }
+}
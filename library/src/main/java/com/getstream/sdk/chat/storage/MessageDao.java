@@ -6,26 +6,46 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
-import io.getstream.chat.android.client.models.Message;
-
 
+/**
+ * The writes run on statements Room compiles once per database and reuses, the socket events
+ * go through {@link #insertMessage} and {@link #deleteMessage}
+ */
 @Dao
 public interface MessageDao {
 
     @Insert
-    void insert(Message word);
+    void insert(MessageEntity message);
 
     @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertMessages(List<Message> messages);
+    void insertMessages(List<MessageEntity> messages);
 
     @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertMessage(Message message);
+    void insertMessage(MessageEntity message);
 
     @Query("DELETE FROM stream_message WHERE stream_message.id = :id")
     void deleteMessage(String id);
 
     @Query("SELECT * FROM stream_message " +
             "WHERE stream_message.cid = :cid ORDER by created_at ASC LIMIT :limit")
-    List<Message> selectMessagesForChannel(final String cid, final Integer limit);
+    List<MessageEntity> selectMessagesForChannel(final String cid, final Integer limit);
+
+    @Query("SELECT COUNT(*) FROM stream_message")
+    int countMessages();
+
+    @Query("SELECT COUNT(*) FROM stream_message WHERE stream_message.cid = :cid")
+    int countMessagesForChannel(final String cid);
+
+    @Query("SELECT stream_message.cid FROM stream_message " +
+            "GROUP BY stream_message.cid HAVING COUNT(*) > :limit")
+    List<String> selectChannelsOverLimit(final int limit);
+
+    /**
+     * deletes the oldest messages of a channel, the caller is expected to keep the batch small
+     * so that a single delete doesn't hold the write lock for long
+     */
+    @Query("DELETE FROM stream_message WHERE stream_message.id IN " +
+            "(SELECT id FROM stream_message WHERE stream_message.cid = :cid ORDER by created_at ASC LIMIT :count)")
+    int deleteOldestMessagesForChannel(final String cid, final int count);
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,138 @@
+package com.getstream.sdk.chat.storage;
+
+import com.getstream.sdk.chat.storage.converter.DateConverter;
+import com.google.gson.Gson;
+
+import java.util.Date;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+import androidx.room.TypeConverters;
+import io.getstream.chat.android.client.models.Message;
+
+/**
+ * A stored message, the columns the queries need and the message itself as json
+ */
+@Entity(tableName = "stream_message", indices = {@Index({"cid", "created_at"})})
+@TypeConverters(DateConverter.class)
+public class MessageEntity {
+
+    static Gson gson = new Gson();
+
+    @PrimaryKey
+    @NonNull
+    private String id;
+
+    @NonNull
+    private String cid;
+
+    @ColumnInfo(name = "created_at")
+    private Date createdAt;
+
+    @ColumnInfo(name = "updated_at")
+    private Date updatedAt;
+
+    @ColumnInfo(name = "deleted_at")
+    private Date deletedAt;
+
+    private String data;
+
+    public MessageEntity(@NonNull String id, @NonNull String cid, Date createdAt) {
+        this.id = id;
+        this.cid = cid;
+        this.createdAt = createdAt;
+    }
+
+    @Ignore
+    public MessageEntity(@NonNull Message message) {
+        this(message.getId(), message.getCid(), message.getCreatedAt());
+        this.updatedAt = message.getUpdatedAt();
+        this.deletedAt = message.getDeletedAt();
+        this.data = gson.toJson(copy(message));
+    }
+
+    @NonNull
+    public Message toMessage() {
+        Message message = data == null ? new Message() : gson.fromJson(data, Message.class);
+        message.setId(id);
+        message.setCid(cid);
+        return message;
+    }
+
+    /**
+     * the message without its channel, the channel references its messages again
+     */
+    private static Message copy(Message message) {
+        Message copy = new Message();
+        copy.setId(message.getId());
+        copy.setCid(message.getCid());
+        copy.setText(message.getText());
+        copy.setType(message.getType());
+        copy.setParentId(message.getParentId());
+        copy.user = message.getUser();
+        copy.setReplyCount(message.getReplyCount());
+        copy.setCreatedAt(message.getCreatedAt());
+        copy.setUpdatedAt(message.getUpdatedAt());
+        copy.setDeletedAt(message.getDeletedAt());
+        copy.getAttachments().addAll(message.getAttachments());
+        copy.getMentionedUsers().addAll(message.getMentionedUsers());
+        copy.getOwnReactions().addAll(message.getOwnReactions());
+        copy.getReactionCounts().putAll(message.getReactionCounts());
+        copy.getExtraData().putAll(message.getExtraData());
+        return copy;
+    }
+
+    @NonNull
+    public String getId() {
+        return id;
+    }
+
+    public void setId(@NonNull String id) {
+        this.id = id;
+    }
+
+    @NonNull
+    public String getCid() {
+        return cid;
+    }
+
+    public void setCid(@NonNull String cid) {
+        this.cid = cid;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Date getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Date updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Date getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(Date deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
+    public String getData() {
+        return data;
+    }
+
+    public void setData(String data) {
+        this.data = data;
+    }
+}
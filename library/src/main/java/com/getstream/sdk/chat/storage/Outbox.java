@@ -0,0 +1,416 @@
+package com.getstream.sdk.chat.storage;
+
+import com.getstream.sdk.chat.utils.RetryPolicy;
+import com.getstream.sdk.chat.utils.StringUtility;
+import com.google.gson.Gson;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import androidx.annotation.NonNull;
+import io.getstream.chat.android.client.ChatClient;
+import io.getstream.chat.android.client.errors.ChatError;
+import io.getstream.chat.android.client.errors.ChatNetworkError;
+import io.getstream.chat.android.client.events.ConnectedEvent;
+import io.getstream.chat.android.client.logger.ChatLogger;
+import io.getstream.chat.android.client.logger.TaggedLogger;
+import io.getstream.chat.android.client.models.Message;
+import io.getstream.chat.android.client.utils.Result;
+import io.getstream.chat.android.client.utils.observable.Subscription;
+import kotlin.Unit;
+
+/**
+ * Persistent queue of sends, edits, deletes and reactions that didn't reach the API.
+ * <p>
+ * Operations are flushed every time the socket connects. The channels of a batch are flushed in
+ * parallel, the operations of a channel one after the other in the order they were written. A
+ * failed operation blocks the ones of its channel written after it and is retried with the
+ * {@link RetryPolicy} back off, once the policy gives up the operation is dropped and listeners are
+ * notified. Operations are read page by page, so a blocked channel doesn't hold back the others.
+ * A send that reached the API before it timed out is reported as done when its retry is rejected
+ * as invalid input and the message is found on the API.
+ * Operations that cancel each other out (e.g. sending and then deleting a message while offline)
+ * are merged before they are stored, so they never hit the network.
+ */
+public class Outbox {
+
+    public interface Listener {
+        /**
+         * called on the outbox thread when an operation reached the API
+         */
+        void onMessageSynced(@NonNull Message message);
+
+        /**
+         * called on the outbox thread when an operation was dropped after its last retry
+         */
+        void onOperationFailed(@NonNull PendingOperation operation, @NonNull ChatError error);
+    }
+
+    private static final int DEFAULT_BATCH_SIZE = 20;
+    private static final int MAX_PARALLEL_CHANNELS = 4;
+    // the API error code of a rejected input, e.g. a message id that is taken
+    private static final int ERROR_CODE_INPUT = 4;
+
+    private final TaggedLogger logger = ChatLogger.Companion.get("Outbox");
+    private final Gson gson = new Gson();
+
+    private final ChatClient client;
+    private final PendingOperationDao dao;
+    private final ScheduledExecutorService executor;
+    private final ExecutorService senders;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private RetryPolicy retryPolicy = new ExponentialRetryPolicy();
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private Subscription subscription;
+    private ScheduledFuture<?> scheduledFlush;
+
+    public Outbox(@NonNull ChatClient client, @NonNull PendingOperationDao dao) {
+        this.client = client;
+        this.dao = dao;
+        this.executor = Executors.newSingleThreadScheduledExecutor();
+        this.senders = Executors.newFixedThreadPool(MAX_PARALLEL_CHANNELS);
+    }
+
+    public void setRetryPolicy(@NonNull RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * @param batchSize number of operations read from the database per round
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void addListener(@NonNull Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(@NonNull Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * flushes the outbox now and every time the socket connects
+     */
+    public synchronized void start() {
+        if (subscription != null) return;
+        subscription = client.events().filter(ConnectedEvent.class).subscribe(event -> {
+            flush();
+            return Unit.INSTANCE;
+        });
+        flush();
+    }
+
+    public synchronized void stop() {
+        if (subscription != null) {
+            subscription.unsubscribe();
+            subscription = null;
+        }
+    }
+
+    // region Enqueue
+
+    public void enqueueSend(@NonNull String cid, @NonNull Message message) {
+        PendingOperation operation = new PendingOperation(PendingOperation.SEND, cid, message.getId());
+        operation.setPayload(toPayload(cid, message));
+        executor.execute(() -> dao.insertOperation(operation));
+    }
+
+    public void enqueueEdit(@NonNull String cid, @NonNull Message message) {
+        String payload = toPayload(cid, message);
+        executor.execute(() -> {
+            // a pending send or edit simply carries the newest text
+            List<PendingOperation> pending = dao.selectOperationsForMessage(message.getId());
+            for (int i = pending.size() - 1; i >= 0; i--) {
+                PendingOperation operation = pending.get(i);
+                if (operation.getType() == PendingOperation.SEND || operation.getType() == PendingOperation.EDIT) {
+                    operation.setPayload(payload);
+                    dao.updateOperation(operation);
+                    return;
+                }
+            }
+            PendingOperation operation = new PendingOperation(PendingOperation.EDIT, cid, message.getId());
+            operation.setPayload(payload);
+            dao.insertOperation(operation);
+        });
+    }
+
+    public void enqueueDelete(@NonNull String cid, @NonNull String messageId) {
+        executor.execute(() -> {
+            List<PendingOperation> pending = dao.selectOperationsForMessage(messageId);
+            List<Long> ids = new ArrayList<>();
+            boolean neverSent = false;
+            for (PendingOperation operation : pending) {
+                ids.add(operation.getId());
+                if (operation.getType() == PendingOperation.SEND) neverSent = true;
+            }
+            if (!ids.isEmpty()) dao.deleteOperations(ids);
+            if (!neverSent) dao.insertOperation(new PendingOperation(PendingOperation.DELETE, cid, messageId));
+        });
+    }
+
+    public void enqueueReaction(@NonNull String cid, @NonNull String messageId, @NonNull String type) {
+        executor.execute(() -> {
+            if (cancelPending(messageId, PendingOperation.DELETE_REACTION, type)) return;
+            PendingOperation operation = new PendingOperation(PendingOperation.REACTION, cid, messageId);
+            operation.setReactionType(type);
+            dao.insertOperation(operation);
+        });
+    }
+
+    public void enqueueDeleteReaction(@NonNull String cid, @NonNull String messageId, @NonNull String type) {
+        executor.execute(() -> {
+            if (cancelPending(messageId, PendingOperation.REACTION, type)) return;
+            PendingOperation operation = new PendingOperation(PendingOperation.DELETE_REACTION, cid, messageId);
+            operation.setReactionType(type);
+            dao.insertOperation(operation);
+        });
+    }
+
+    private boolean cancelPending(String messageId, @PendingOperation.Type int opposite, String reactionType) {
+        for (PendingOperation operation : dao.selectOperationsForMessage(messageId)) {
+            if (operation.getType() == opposite && reactionType.equals(operation.getReactionType())) {
+                dao.deleteOperation(operation.getId());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // endregion
+
+    // region Flush
+
+    /**
+     * sends the pending operations on the outbox thread
+     */
+    public void flush() {
+        executor.execute(this::flushSafely);
+    }
+
+    public void getPendingCount(@NonNull OnQueryListener<Integer> listener) {
+        executor.execute(() -> {
+            try {
+                listener.onSuccess(dao.countOperations());
+            } catch (Exception e) {
+                listener.onFailure(e);
+            }
+        });
+    }
+
+    private void flushSafely() {
+        try {
+            flushPending();
+        } catch (Exception e) {
+            logger.logE(e);
+        }
+    }
+
+    protected void flushPending() throws InterruptedException {
+        if (!client.isSocketConnected()) return;
+
+        // channels with an operation that failed or waits, their later operations have to wait too
+        Set<String> blocked = new HashSet<>();
+        long lastId = 0;
+        long nextFlush = -1;
+        while (true) {
+            List<PendingOperation> batch = dao.selectOperationsAfter(lastId, batchSize);
+            if (batch.isEmpty()) break;
+            lastId = batch.get(batch.size() - 1).getId();
+
+            Map<String, List<PendingOperation>> channels = new LinkedHashMap<>();
+            for (PendingOperation operation : batch) {
+                if (blocked.contains(operation.getCid())) continue;
+                List<PendingOperation> operations = channels.get(operation.getCid());
+                if (operations == null) {
+                    operations = new ArrayList<>();
+                    channels.put(operation.getCid(), operations);
+                }
+                operations.add(operation);
+            }
+
+            Map<String, Future<ChannelFlush>> flushes = new LinkedHashMap<>();
+            for (Map.Entry<String, List<PendingOperation>> channel : channels.entrySet()) {
+                List<PendingOperation> operations = channel.getValue();
+                flushes.put(channel.getKey(), senders.submit(() -> flushChannel(operations)));
+            }
+
+            List<Long> done = new ArrayList<>();
+            try {
+                for (Map.Entry<String, Future<ChannelFlush>> future : flushes.entrySet()) {
+                    ChannelFlush flush;
+                    try {
+                        flush = future.getValue().get();
+                    } catch (ExecutionException e) {
+                        logger.logE(e);
+                        blocked.add(future.getKey());
+                        continue;
+                    }
+                    done.addAll(flush.done);
+                    for (Object data : flush.results) onSuccess(data);
+                    if (flush.failed == null && flush.wait < 0) continue;
+
+                    blocked.add(future.getKey());
+                    long delay = flush.failed != null ? onFailure(flush.failed, flush.error) : flush.wait;
+                    if (delay >= 0 && (nextFlush < 0 || delay < nextFlush)) nextFlush = delay;
+                }
+            } finally {
+                if (!done.isEmpty()) dao.deleteOperations(done);
+            }
+
+            if (batch.size() < batchSize) break;
+        }
+        if (nextFlush >= 0) scheduleFlush(nextFlush);
+    }
+
+    /**
+     * sends the operations of a channel in order, until one fails or has to wait for its retry
+     */
+    private ChannelFlush flushChannel(List<PendingOperation> operations) {
+        ChannelFlush flush = new ChannelFlush();
+        for (PendingOperation operation : operations) {
+            long wait = operation.getNextAttemptAt() - System.currentTimeMillis();
+            if (wait > 0) {
+                flush.wait = wait;
+                return flush;
+            }
+
+            Result<?> result = execute(operation);
+            if (result.isSuccess()) {
+                flush.done.add(operation.getId());
+                flush.results.add(result.data());
+            } else if (isAlreadySent(operation, result.error())) {
+                logger.logI("message " + operation.getMessageId() + " was sent before");
+                flush.done.add(operation.getId());
+            } else {
+                flush.failed = operation;
+                flush.error = result.error();
+                return flush;
+            }
+        }
+        return flush;
+    }
+
+    /**
+     * a send that timed out can still have reached the API, its retry is rejected as invalid input
+     * because the id is taken. Other inputs are rejected with the same code, so the message has to
+     * be found on the API too
+     */
+    private boolean isAlreadySent(PendingOperation operation, ChatError error) {
+        if (operation.getType() != PendingOperation.SEND) return false;
+        if (!(error instanceof ChatNetworkError)) return false;
+        if (((ChatNetworkError) error).getStreamCode() != ERROR_CODE_INPUT) return false;
+        return client.getMessage(operation.getMessageId()).execute().isSuccess();
+    }
+
+    protected Result<?> execute(PendingOperation operation) {
+        switch (operation.getType()) {
+            case PendingOperation.SEND:
+                return client.sendMessage(
+                        StringUtility.getChannelTypeFromCid(operation.getCid()),
+                        StringUtility.getChannelIdFromCid(operation.getCid()),
+                        fromPayload(operation.getPayload())
+                ).execute();
+            case PendingOperation.EDIT:
+                return client.updateMessage(fromPayload(operation.getPayload())).execute();
+            case PendingOperation.DELETE:
+                return client.deleteMessage(operation.getMessageId()).execute();
+            case PendingOperation.REACTION:
+                return client.sendReaction(operation.getMessageId(), operation.getReactionType()).execute();
+            case PendingOperation.DELETE_REACTION:
+                return client.deleteReaction(operation.getMessageId(), operation.getReactionType()).execute();
+            default:
+                throw new IllegalArgumentException("unknown operation type " + operation.getType());
+        }
+    }
+
+    private void onSuccess(Object data) {
+        if (!(data instanceof Message)) return;
+        for (Listener listener : listeners) listener.onMessageSynced((Message) data);
+    }
+
+    /**
+     * @return the delay before the next flush
+     */
+    private long onFailure(PendingOperation operation, ChatError error) {
+        int attempt = operation.getAttempts() + 1;
+        String errMsg = error.getMessage();
+
+        if (retryPolicy.shouldRetry(client, attempt, errMsg, -1)) {
+            int timeout = retryPolicy.retryTimeout(client, attempt, errMsg, -1);
+            logger.logI("operation " + operation.getId() + " failed, retrying in " + timeout);
+            operation.setAttempts(attempt);
+            operation.setNextAttemptAt(System.currentTimeMillis() + timeout);
+            dao.updateOperation(operation);
+            return timeout;
+        } else {
+            logger.logE("operation " + operation.getId() + " dropped after " + attempt + " attempts: " + errMsg);
+            dao.deleteOperation(operation.getId());
+            for (Listener listener : listeners) listener.onOperationFailed(operation, error);
+            // the following operations are no longer blocked
+            return 0;
+        }
+    }
+
+    private synchronized void scheduleFlush(long delay) {
+        if (scheduledFlush != null) scheduledFlush.cancel(false);
+        scheduledFlush = executor.schedule(this::flushSafely, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private static class ChannelFlush {
+        final List<Long> done = new ArrayList<>();
+        final List<Object> results = new ArrayList<>();
+        PendingOperation failed;
+        ChatError error;
+        long wait = -1;
+    }
+
+    // endregion
+
+    private String toPayload(String cid, Message message) {
+        // only what the API needs, the full message references its channel
+        Message copy = new Message();
+        copy.setId(message.getId());
+        copy.setCid(cid);
+        copy.setText(message.getText());
+        copy.setParentId(message.getParentId());
+        copy.getAttachments().addAll(message.getAttachments());
+        copy.getMentionedUsers().addAll(message.getMentionedUsers());
+        copy.getExtraData().putAll(message.getExtraData());
+        return gson.toJson(copy);
+    }
+
+    private Message fromPayload(String payload) {
+        return gson.fromJson(payload, Message.class);
+    }
+
+    /**
+     * retries 8 times, doubling the timeout from 1 second up to 1 minute
+     */
+    public static class ExponentialRetryPolicy implements RetryPolicy {
+
+        @Override
+        public boolean shouldRetry(ChatClient client, Integer attempt, String errMsg, int errCode) {
+            return attempt < 8;
+        }
+
+        @Override
+        public Integer retryTimeout(ChatClient client, Integer attempt, String errMsg, int errCode) {
+            return (int) Math.min(1000L << Math.min(attempt - 1, 6), 60000);
+        }
+    }
+}
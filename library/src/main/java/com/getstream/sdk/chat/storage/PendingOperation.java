@@ -0,0 +1,135 @@
+package com.getstream.sdk.chat.storage;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import androidx.annotation.IntDef;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * An operation written while offline, or that failed to reach the API, waiting in the {@link Outbox}
+ */
+@Entity(tableName = "stream_pending_operation", indices = {@Index("message_id")})
+public class PendingOperation {
+
+    public static final int SEND = 0;
+    public static final int EDIT = 1;
+    public static final int DELETE = 2;
+    public static final int REACTION = 3;
+    public static final int DELETE_REACTION = 4;
+
+    @IntDef({SEND, EDIT, DELETE, REACTION, DELETE_REACTION})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface Type {
+    }
+
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+
+    @Type
+    private int type;
+
+    private String cid;
+
+    @ColumnInfo(name = "message_id")
+    private String messageId;
+
+    @ColumnInfo(name = "reaction_type")
+    private String reactionType;
+
+    /**
+     * the message as json, for sends and edits
+     */
+    private String payload;
+
+    private int attempts;
+
+    @ColumnInfo(name = "created_at")
+    private long createdAt;
+
+    @ColumnInfo(name = "next_attempt_at")
+    private long nextAttemptAt;
+
+    public PendingOperation(@Type int type, String cid, String messageId) {
+        this.type = type;
+        this.cid = cid;
+        this.messageId = messageId;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    @Type
+    public int getType() {
+        return type;
+    }
+
+    public void setType(@Type int type) {
+        this.type = type;
+    }
+
+    public String getCid() {
+        return cid;
+    }
+
+    public void setCid(String cid) {
+        this.cid = cid;
+    }
+
+    public String getMessageId() {
+        return messageId;
+    }
+
+    public void setMessageId(String messageId) {
+        this.messageId = messageId;
+    }
+
+    public String getReactionType() {
+        return reactionType;
+    }
+
+    public void setReactionType(String reactionType) {
+        this.reactionType = reactionType;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(long nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+}
@@ -0,0 +1,38 @@
+package com.getstream.sdk.chat.storage;
+
+import java.util.List;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+import androidx.room.Update;
+
+@Dao
+public interface PendingOperationDao {
+
+    @Insert
+    long insertOperation(PendingOperation operation);
+
+    @Update
+    void updateOperation(PendingOperation operation);
+
+    /**
+     * the page of operations written after the given one, in the order they were written
+     */
+    @Query("SELECT * FROM stream_pending_operation " +
+            "WHERE stream_pending_operation.id > :afterId ORDER BY id ASC LIMIT :limit")
+    List<PendingOperation> selectOperationsAfter(final long afterId, final int limit);
+
+    @Query("SELECT * FROM stream_pending_operation " +
+            "WHERE stream_pending_operation.message_id = :messageId ORDER BY id ASC")
+    List<PendingOperation> selectOperationsForMessage(final String messageId);
+
+    @Query("SELECT COUNT(*) FROM stream_pending_operation")
+    int countOperations();
+
+    @Query("DELETE FROM stream_pending_operation WHERE stream_pending_operation.id IN (:ids)")
+    void deleteOperations(final List<Long> ids);
+
+    @Query("DELETE FROM stream_pending_operation WHERE stream_pending_operation.id = :id")
+    void deleteOperation(final long id);
+}
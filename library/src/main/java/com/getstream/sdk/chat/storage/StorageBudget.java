@@ -0,0 +1,127 @@
+package com.getstream.sdk.chat.storage;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits applied by {@link StorageManager} to the offline database.
+ * A value of 0 disables the corresponding limit.
+ */
+public class StorageBudget {
+
+    private final int maxMessagesPerChannel;
+    private final int maxMessages;
+    private final long maxBytes;
+    private final int batchSize;
+    private final long trimIntervalMs;
+    private final long vacuumIntervalMs;
+    private final long vacuumThresholdBytes;
+
+    private StorageBudget(Builder builder) {
+        this.maxMessagesPerChannel = builder.maxMessagesPerChannel;
+        this.maxMessages = builder.maxMessages;
+        this.maxBytes = builder.maxBytes;
+        this.batchSize = builder.batchSize;
+        this.trimIntervalMs = builder.trimIntervalMs;
+        this.vacuumIntervalMs = builder.vacuumIntervalMs;
+        this.vacuumThresholdBytes = builder.vacuumThresholdBytes;
+    }
+
+    public int getMaxMessagesPerChannel() {
+        return maxMessagesPerChannel;
+    }
+
+    public int getMaxMessages() {
+        return maxMessages;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public long getTrimIntervalMs() {
+        return trimIntervalMs;
+    }
+
+    public long getVacuumIntervalMs() {
+        return vacuumIntervalMs;
+    }
+
+    public long getVacuumThresholdBytes() {
+        return vacuumThresholdBytes;
+    }
+
+    public static class Builder {
+        private int maxMessagesPerChannel = 1000;
+        private int maxMessages = 20000;
+        private long maxBytes = 50 * 1024 * 1024;
+        private int batchSize = 200;
+        private long trimIntervalMs = TimeUnit.MINUTES.toMillis(15);
+        private long vacuumIntervalMs = TimeUnit.DAYS.toMillis(1);
+        private long vacuumThresholdBytes = 4 * 1024 * 1024;
+
+        /**
+         * @param maxMessagesPerChannel number of messages kept for a single channel, older ones are evicted first
+         */
+        public Builder maxMessagesPerChannel(int maxMessagesPerChannel) {
+            this.maxMessagesPerChannel = maxMessagesPerChannel;
+            return this;
+        }
+
+        /**
+         * @param maxMessages number of messages kept across all channels
+         */
+        public Builder maxMessages(int maxMessages) {
+            this.maxMessages = maxMessages;
+            return this;
+        }
+
+        /**
+         * @param maxBytes size of the live (non free) database pages
+         */
+        public Builder maxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * @param batchSize number of messages deleted per statement
+         */
+        public Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * @param trimIntervalMs delay between two background trims
+         */
+        public Builder trimInterval(long trimIntervalMs) {
+            this.trimIntervalMs = trimIntervalMs;
+            return this;
+        }
+
+        /**
+         * @param vacuumIntervalMs minimum delay between two full VACUUM runs
+         */
+        public Builder vacuumInterval(long vacuumIntervalMs) {
+            this.vacuumIntervalMs = vacuumIntervalMs;
+            return this;
+        }
+
+        /**
+         * @param vacuumThresholdBytes free space that has to accumulate before space is given back to the file system
+         */
+        public Builder vacuumThreshold(long vacuumThresholdBytes) {
+            this.vacuumThresholdBytes = vacuumThresholdBytes;
+            return this;
+        }
+
+        public StorageBudget build() {
+            if (batchSize <= 0) throw new IllegalArgumentException("batchSize must be greater than 0");
+            return new StorageBudget(this);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.getstream.sdk.chat.storage;
+
+import android.database.Cursor;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import androidx.annotation.NonNull;
+import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+import io.getstream.chat.android.client.logger.ChatLogger;
+import io.getstream.chat.android.client.logger.TaggedLogger;
+
+/**
+ * Keeps the offline database within a {@link StorageBudget}.
+ * <p>
+ * Messages are evicted oldest first, in small batches on a background thread. When the global
+ * budget is exceeded the channels that were opened least recently give up their messages first.
+ * Freed pages are handed back to the file system with incremental_vacuum when the database was
+ * created with auto_vacuum=INCREMENTAL, or with a full VACUUM at most once per vacuum interval.
+ * The counts the trim loop checks after every batch run on statements compiled once.
+ */
+public class StorageManager {
+
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+
+    private final TaggedLogger logger = ChatLogger.Companion.get("StorageManager");
+
+    private final RoomDatabase database;
+    private final MessageDao messageDao;
+    private final ChannelAccessDao channelAccessDao;
+    private final StorageBudget budget;
+    private final ScheduledExecutorService executor;
+
+    private ScheduledFuture<?> scheduledTrim;
+    private long lastVacuumAt;
+
+    // compiled on the background thread the first time they are needed
+    private SupportSQLiteStatement countMessages;
+    private SupportSQLiteStatement pageSize;
+    private SupportSQLiteStatement pageCount;
+    private SupportSQLiteStatement freePageCount;
+
+    public StorageManager(@NonNull RoomDatabase database,
+                          @NonNull MessageDao messageDao,
+                          @NonNull ChannelAccessDao channelAccessDao,
+                          @NonNull StorageBudget budget) {
+        this.database = database;
+        this.messageDao = messageDao;
+        this.channelAccessDao = channelAccessDao;
+        this.budget = budget;
+        this.executor = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    public StorageBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * starts trimming the database periodically, using the budget trim interval
+     */
+    public synchronized void start() {
+        if (scheduledTrim != null) return;
+        long interval = budget.getTrimIntervalMs();
+        scheduledTrim = executor.scheduleWithFixedDelay(this::trimSafely, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * stops the periodic trim, work already in progress is completed
+     */
+    public synchronized void stop() {
+        if (scheduledTrim != null) {
+            scheduledTrim.cancel(false);
+            scheduledTrim = null;
+        }
+    }
+
+    /**
+     * releases the background thread, the manager can't be used afterwards
+     */
+    public void shutdown() {
+        stop();
+        executor.shutdown();
+    }
+
+    /**
+     * records that a channel was opened, recently opened channels are evicted last
+     *
+     * @param cid the channel id (type:id)
+     */
+    public void onChannelOpened(@NonNull String cid) {
+        Date now = new Date();
+        executor.execute(() -> channelAccessDao.insertChannelAccess(new ChannelAccess(cid, now)));
+    }
+
+    /**
+     * removes the access entry of a channel that was deleted or hidden
+     *
+     * @param cid the channel id (type:id)
+     */
+    public void onChannelRemoved(@NonNull String cid) {
+        executor.execute(() -> channelAccessDao.deleteChannelAccess(cid));
+    }
+
+    /**
+     * trims the database on the background thread
+     */
+    public void trimAsync() {
+        executor.execute(this::trimSafely);
+    }
+
+    /**
+     * reports the database size, the listener is called on the background thread
+     */
+    public void getDatabaseSize(@NonNull OnQueryListener<DatabaseSize> listener) {
+        executor.execute(() -> {
+            try {
+                listener.onSuccess(readDatabaseSize());
+            } catch (Exception e) {
+                listener.onFailure(e);
+            }
+        });
+    }
+
+    private void trimSafely() {
+        try {
+            trim();
+        } catch (Exception e) {
+            logger.logE(e);
+        }
+    }
+
+    /**
+     * applies the budget, must be called off the main thread
+     */
+    protected void trim() {
+        int evicted = trimChannels() + trimGlobal();
+        if (evicted > 0) logger.logI("evicted " + evicted + " messages");
+        vacuumIfNeeded();
+    }
+
+    protected int trimChannels() {
+        int limit = budget.getMaxMessagesPerChannel();
+        if (limit <= 0) return 0;
+
+        int evicted = 0;
+        for (String cid : messageDao.selectChannelsOverLimit(limit)) {
+            int excess = messageDao.countMessagesForChannel(cid) - limit;
+            while (excess > 0) {
+                int deleted = messageDao.deleteOldestMessagesForChannel(cid, Math.min(excess, budget.getBatchSize()));
+                if (deleted == 0) break;
+                excess -= deleted;
+                evicted += deleted;
+            }
+        }
+        return evicted;
+    }
+
+    protected int trimGlobal() {
+        if (!isOverGlobalBudget()) return 0;
+
+        int evicted = 0;
+        List<String> channels = channelAccessDao.getChannelsLeastRecentlyOpened();
+        for (String cid : channels) {
+            while (isOverGlobalBudget()) {
+                int deleted = messageDao.deleteOldestMessagesForChannel(cid, budget.getBatchSize());
+                if (deleted == 0) break;
+                evicted += deleted;
+            }
+            if (!isOverGlobalBudget()) break;
+        }
+        return evicted;
+    }
+
+    private boolean isOverGlobalBudget() {
+        if (budget.getMaxMessages() > 0 && countMessages() > budget.getMaxMessages()) {
+            return true;
+        }
+        return budget.getMaxBytes() > 0 && readDatabaseSize().getUsedBytes() > budget.getMaxBytes();
+    }
+
+    protected void vacuumIfNeeded() {
+        DatabaseSize size = readDatabaseSize();
+        if (size.getFreeBytes() < budget.getVacuumThresholdBytes()) return;
+
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        if (readLong(db, "PRAGMA auto_vacuum") == AUTO_VACUUM_INCREMENTAL) {
+            logger.logI("incremental_vacuum, free bytes: " + size.getFreeBytes());
+            // incremental_vacuum returns a row per freed page, the cursor has to be drained
+            Cursor cursor = db.query("PRAGMA incremental_vacuum");
+            try {
+                while (cursor.moveToNext()) {
+                    // each row is a freed page
+                }
+            } finally {
+                cursor.close();
+            }
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (now - lastVacuumAt < budget.getVacuumIntervalMs()) return;
+        lastVacuumAt = now;
+        logger.logI("vacuum, free bytes: " + size.getFreeBytes());
+        db.execSQL("VACUUM");
+    }
+
+    protected DatabaseSize readDatabaseSize() {
+        compileStatements();
+        return new DatabaseSize(
+                pageSize.simpleQueryForLong(),
+                pageCount.simpleQueryForLong(),
+                freePageCount.simpleQueryForLong(),
+                countMessages()
+        );
+    }
+
+    private int countMessages() {
+        compileStatements();
+        return (int) countMessages.simpleQueryForLong();
+    }
+
+    private void compileStatements() {
+        if (countMessages != null) return;
+        countMessages = database.compileStatement("SELECT COUNT(*) FROM stream_message");
+        pageSize = database.compileStatement("PRAGMA page_size");
+        pageCount = database.compileStatement("PRAGMA page_count");
+        freePageCount = database.compileStatement("PRAGMA freelist_count");
+    }
+
+    private static long readLong(SupportSQLiteDatabase db, String pragma) {
+        Cursor cursor = db.query(pragma);
+        try {
+            return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+        } finally {
+            cursor.close();
+        }
+    }
+}
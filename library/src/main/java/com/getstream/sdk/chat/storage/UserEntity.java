@@ -0,0 +1,56 @@
+package com.getstream.sdk.chat.storage;
+
+import com.google.gson.Gson;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.PrimaryKey;
+import io.getstream.chat.android.client.models.User;
+
+/**
+ * A stored user, the user itself is kept as json
+ */
+@Entity(tableName = "stream_user")
+public class UserEntity {
+
+    static Gson gson = new Gson();
+
+    @PrimaryKey
+    @NonNull
+    private String id;
+
+    private String data;
+
+    public UserEntity(@NonNull String id, String data) {
+        this.id = id;
+        this.data = data;
+    }
+
+    @Ignore
+    public UserEntity(@NonNull User user) {
+        this(user.getId(), gson.toJson(user));
+    }
+
+    @NonNull
+    public User toUser() {
+        return data == null ? new User(id) : gson.fromJson(data, User.class);
+    }
+
+    @NonNull
+    public String getId() {
+        return id;
+    }
+
+    public void setId(@NonNull String id) {
+        this.id = id;
+    }
+
+    public String getData() {
+        return data;
+    }
+
+    public void setData(String data) {
+        this.data = data;
+    }
+}
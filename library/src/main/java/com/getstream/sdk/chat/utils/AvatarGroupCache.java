@@ -0,0 +1,298 @@
+package com.getstream.sdk.chat.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Shader;
+import android.graphics.Typeface;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.TextUtils;
+import android.util.LruCache;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.request.FutureTarget;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import io.getstream.chat.android.client.logger.ChatLogger;
+import io.getstream.chat.android.client.logger.TaggedLogger;
+
+/**
+ * Group avatars drawn into a single bitmap.
+ * <p>
+ * The avatars of the members are loaded through Glide on a background thread and drawn at their
+ * place in the group, with the same border and initials as a
+ * {@link com.getstream.sdk.chat.utils.roundedImageView.CircularImageView}. The result is kept in a
+ * memory LRU bounded in bytes and keyed by the member images, their bounds and the look, so a
+ * group shows as one image the next time it is bound. A group with an avatar that failed to load is
+ * shown with the initials of that member but not kept, so it is drawn again on the next bind.
+ */
+public class AvatarGroupCache {
+
+    public interface Listener {
+        /**
+         * called on the main thread
+         */
+        void onComposed(@NonNull String key, @NonNull Bitmap bitmap);
+    }
+
+    /**
+     * a member avatar and where it is drawn in the group
+     */
+    public static class Member {
+        @Nullable
+        final String image;
+        @Nullable
+        final String initials;
+        @NonNull
+        final Rect bounds;
+
+        public Member(@Nullable String image, @Nullable String initials, @NonNull Rect bounds) {
+            this.image = image;
+            this.initials = initials;
+            this.bounds = bounds;
+        }
+    }
+
+    /**
+     * the border and placeholder of the member avatars
+     */
+    public static class Look {
+        final int borderWidth;
+        @ColorInt
+        final int borderColor;
+        @ColorInt
+        final int backgroundColor;
+        @ColorInt
+        final int textColor;
+        final float textSize;
+        @NonNull
+        final Typeface typeface;
+
+        public Look(int borderWidth,
+                    @ColorInt int borderColor,
+                    @ColorInt int backgroundColor,
+                    @ColorInt int textColor,
+                    float textSize,
+                    @NonNull Typeface typeface) {
+            this.borderWidth = borderWidth;
+            this.borderColor = borderColor;
+            this.backgroundColor = backgroundColor;
+            this.textColor = textColor;
+            this.textSize = textSize;
+            this.typeface = typeface;
+        }
+    }
+
+    /**
+     * a drawn group, incomplete if an avatar failed to load
+     */
+    private static class Composition {
+        final Bitmap bitmap;
+        boolean complete = true;
+
+        Composition(Bitmap bitmap) {
+            this.bitmap = bitmap;
+        }
+    }
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @Nullable
+    private static AvatarGroupCache instance;
+
+    private final TaggedLogger logger = ChatLogger.Companion.get("AvatarGroupCache");
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Set<String> composing = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    private final LruCache<String, Bitmap> cache;
+
+    /**
+     * @return the cache shared by the avatar views, it uses 1/32 of the heap
+     */
+    public static synchronized AvatarGroupCache getInstance() {
+        if (instance == null) {
+            int maxBytes = (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 32);
+            instance = new AvatarGroupCache(maxBytes);
+        }
+        return instance;
+    }
+
+    /**
+     * @param maxBytes bytes of bitmaps kept in memory
+     */
+    public AvatarGroupCache(int maxBytes) {
+        cache = new LruCache<String, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getByteCount();
+            }
+        };
+    }
+
+    @NonNull
+    public static String key(@NonNull List<Member> members, int width, int height, @NonNull Look look) {
+        StringBuilder key = new StringBuilder()
+                .append(width).append('x').append(height).append('|')
+                .append(look.borderWidth).append('|')
+                .append(look.borderColor).append('|')
+                .append(look.backgroundColor).append('|')
+                .append(look.textColor).append('|')
+                .append(look.textSize).append('|')
+                .append(System.identityHashCode(look.typeface));
+        for (Member member : members) {
+            key.append('|').append(member.image)
+                    .append('#').append(member.initials)
+                    .append('@').append(member.bounds.toShortString());
+        }
+        return key.toString();
+    }
+
+    @Nullable
+    public Bitmap get(@NonNull String key) {
+        return cache.get(key);
+    }
+
+    /**
+     * draws the group on a background thread, the listener is not called if the drawing fails
+     */
+    @MainThread
+    public void compose(@NonNull Context context,
+                        @NonNull String key,
+                        @NonNull List<Member> members,
+                        int width,
+                        int height,
+                        @NonNull Look look,
+                        @NonNull Listener listener) {
+        if (width <= 0 || height <= 0) return;
+        Context appContext = context.getApplicationContext();
+        executor.execute(() -> {
+            Bitmap bitmap = cache.get(key);
+            if (bitmap == null && composing.add(key)) {
+                try {
+                    Composition composition = draw(appContext, members, width, height, look);
+                    if (composition != null) {
+                        bitmap = composition.bitmap;
+                        if (composition.complete) cache.put(key, bitmap);
+                    }
+                } finally {
+                    composing.remove(key);
+                }
+            }
+            if (bitmap == null) return;
+            Bitmap result = bitmap;
+            handler.post(() -> listener.onComposed(key, result));
+        });
+    }
+
+    public void clear() {
+        cache.evictAll();
+    }
+
+    @WorkerThread
+    @Nullable
+    private Composition draw(Context context, List<Member> members, int width, int height, Look look) {
+        Bitmap group;
+        try {
+            group = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        } catch (OutOfMemoryError e) {
+            logger.logE("no memory for a group avatar of " + width + "x" + height);
+            return null;
+        }
+        Composition composition = new Composition(group);
+        Canvas canvas = new Canvas(group);
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        for (Member member : members) {
+            FutureTarget<Bitmap> target = submit(context, member);
+            try {
+                Bitmap image = null;
+                if (target != null) {
+                    try {
+                        image = target.get();
+                    } catch (ExecutionException e) {
+                        // no image, the initials are drawn
+                        composition.complete = false;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        composition.complete = false;
+                    }
+                }
+                drawMember(canvas, paint, image, member, look);
+            } finally {
+                // the avatar is drawn into the group, Glide can reuse its bitmap
+                if (target != null) Glide.with(context).clear(target);
+            }
+        }
+        return composition;
+    }
+
+    @Nullable
+    private static FutureTarget<Bitmap> submit(Context context, Member member) {
+        if (TextUtils.isEmpty(member.image) || Utils.isSVGImage(member.image)) return null;
+        int size = Math.min(member.bounds.width(), member.bounds.height());
+        if (size <= 0) return null;
+        return ImageLoader.avatarRequest(context, member.image, size, size).submit();
+    }
+
+    private static void drawMember(Canvas canvas, Paint paint, @Nullable Bitmap image, Member member, Look look) {
+        float cx = member.bounds.exactCenterX();
+        float cy = member.bounds.exactCenterY();
+        float radius = Math.min(member.bounds.width(), member.bounds.height()) / 2f;
+        float inner = radius - Math.max(0, look.borderWidth);
+
+        paint.reset();
+        paint.setAntiAlias(true);
+        paint.setColor(look.borderColor);
+        canvas.drawCircle(cx, cy, radius - 1, paint);
+
+        if (image != null) {
+            float scale = inner * 2 / Math.min(image.getWidth(), image.getHeight());
+            Matrix matrix = new Matrix();
+            matrix.setScale(scale, scale);
+            matrix.postTranslate(cx - image.getWidth() * scale / 2, cy - image.getHeight() * scale / 2);
+            BitmapShader shader = new BitmapShader(image, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP);
+            shader.setLocalMatrix(matrix);
+            paint.setColor(0xFF000000);
+            paint.setShader(shader);
+            canvas.drawCircle(cx, cy, inner, paint);
+            paint.setShader(null);
+            return;
+        }
+
+        paint.setColor(look.backgroundColor);
+        canvas.drawCircle(cx, cy, inner, paint);
+        String text = placeholderText(member.initials);
+        if (text == null || look.textSize <= 0) return;
+        paint.setColor(look.textColor);
+        paint.setTextSize(look.textSize);
+        paint.setTypeface(look.typeface);
+        paint.setTextAlign(Paint.Align.CENTER);
+        float y = member.bounds.top + (member.bounds.height() - (paint.ascent() + paint.descent())) / 2f;
+        canvas.drawText(text, cx, y, paint);
+    }
+
+    // same as CircularImageView.formatPlaceholderText
+    @Nullable
+    private static String placeholderText(@Nullable String initials) {
+        String text = initials == null ? null : initials.trim();
+        if (TextUtils.isEmpty(text)) return null;
+        return text.substring(0, Math.min(2, text.length())).toUpperCase(Locale.getDefault());
+    }
+}
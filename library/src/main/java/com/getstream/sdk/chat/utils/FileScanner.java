@@ -0,0 +1,228 @@
+package com.getstream.sdk.chat.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.getstream.sdk.chat.model.AttachmentMetaData;
+import com.getstream.sdk.chat.model.ModelType;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Finds the documents that can be attached, on a background thread.
+ * <p>
+ * Directories are walked with an explicit stack down to {@code maxDepth}, hidden directories are
+ * skipped. Matches are handed to the main thread in batches while the walk goes on and a walk can
+ * be cancelled at any time. The result of a complete walk is kept for {@code cacheTtlMs}, reopening
+ * the picker within that time doesn't touch the file system.
+ */
+public class FileScanner {
+
+    public interface Listener {
+        /**
+         * called on the main thread with new attachments, every call creates new instances
+         */
+        void onFound(@NonNull List<AttachmentMetaData> attachments);
+
+        /**
+         * called on the main thread once the walk is done
+         */
+        void onComplete(int total);
+    }
+
+    private static final int DEFAULT_MAX_DEPTH = 8;
+    private static final long DEFAULT_CACHE_TTL_MS = 5 * 60 * 1000;
+    private static final long BATCH_INTERVAL_MS = 100;
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final int maxDepth;
+    private final long cacheTtlMs;
+
+    private Future<?> running;
+    // every scan gets a new generation, callbacks of older scans are dropped
+    private volatile int generation;
+
+    @Nullable
+    private volatile Cache cache;
+
+    public FileScanner() {
+        this(DEFAULT_MAX_DEPTH, DEFAULT_CACHE_TTL_MS);
+    }
+
+    /**
+     * @param maxDepth   number of directory levels below the root that are visited
+     * @param cacheTtlMs time a complete scan is reused
+     */
+    public FileScanner(int maxDepth, long cacheTtlMs) {
+        this.maxDepth = maxDepth;
+        this.cacheTtlMs = cacheTtlMs;
+    }
+
+    /**
+     * scans the root, a scan that is still running is cancelled
+     */
+    @MainThread
+    public void scan(@NonNull File root, @NonNull Listener listener) {
+        cancel();
+        int current = generation;
+
+        Cache cached = cache;
+        if (cached != null && cached.root.equals(root)
+                && SystemClock.elapsedRealtime() - cached.createdAt < cacheTtlMs) {
+            listener.onFound(toAttachments(cached.files));
+            listener.onComplete(cached.files.size());
+            return;
+        }
+
+        running = executor.submit(() -> walk(root, listener, current));
+    }
+
+    /**
+     * stops the scan, no callback is called afterwards
+     */
+    @MainThread
+    public void cancel() {
+        generation++;
+        handler.removeCallbacksAndMessages(null);
+        if (running != null) {
+            running.cancel(false);
+            running = null;
+        }
+    }
+
+    /**
+     * drops the cached result, the next scan walks the file system again
+     */
+    public void invalidate() {
+        cache = null;
+    }
+
+    private void walk(File root, Listener listener, int current) {
+        List<FoundFile> found = new ArrayList<>();
+        List<FoundFile> batch = new ArrayList<>();
+        long lastPostAt = SystemClock.elapsedRealtime();
+
+        Deque<Level> stack = new ArrayDeque<>();
+        stack.push(new Level(root, 0));
+
+        while (!stack.isEmpty()) {
+            if (current != generation) return;
+
+            Level level = stack.pop();
+            File[] children = level.dir.listFiles();
+            if (children == null) continue;
+
+            for (File child : children) {
+                if (child.isDirectory()) {
+                    if (level.depth < maxDepth && !child.getName().startsWith(".")) {
+                        stack.push(new Level(child, level.depth + 1));
+                    }
+                    continue;
+                }
+                String mimeType = mimeTypeOf(child.getName());
+                if (mimeType == null) continue;
+
+                FoundFile file = new FoundFile(child, mimeType);
+                found.add(file);
+                batch.add(file);
+            }
+
+            long now = SystemClock.elapsedRealtime();
+            if (!batch.isEmpty() && now - lastPostAt >= BATCH_INTERVAL_MS) {
+                post(current, batch, listener);
+                batch = new ArrayList<>();
+                lastPostAt = now;
+            }
+        }
+
+        if (current != generation) return;
+        if (!batch.isEmpty()) post(current, batch, listener);
+        cache = new Cache(root, Collections.unmodifiableList(found), SystemClock.elapsedRealtime());
+        int total = found.size();
+        handler.post(() -> {
+            if (current == generation) listener.onComplete(total);
+        });
+    }
+
+    private void post(int current, List<FoundFile> batch, Listener listener) {
+        handler.post(() -> {
+            if (current == generation) listener.onFound(toAttachments(batch));
+        });
+    }
+
+    private static List<AttachmentMetaData> toAttachments(List<FoundFile> files) {
+        List<AttachmentMetaData> attachments = new ArrayList<>(files.size());
+        for (FoundFile found : files) {
+            AttachmentMetaData attachment = new AttachmentMetaData(found.file);
+            Utils.configFileAttachment(attachment, found.file, ModelType.attach_file, found.mimeType);
+            attachments.add(attachment);
+        }
+        return attachments;
+    }
+
+    /**
+     * @return the mime type of the documents that can be attached, null for any other file
+     */
+    @Nullable
+    static String mimeTypeOf(String name) {
+        if (name.endsWith(".pdf")) return ModelType.attach_mime_pdf;
+        if (name.endsWith(".ppt")) return ModelType.attach_mime_ppt;
+        if (name.endsWith(".csv")) return ModelType.attach_mime_csv;
+        if (name.endsWith(".xlsx")) return ModelType.attach_mime_xlsx;
+        if (name.endsWith(".doc")) return ModelType.attach_mime_doc;
+        if (name.endsWith(".docx")) return ModelType.attach_mime_docx;
+        if (name.endsWith(".txt")) return ModelType.attach_mime_txt;
+        if (name.endsWith(".zip")) return ModelType.attach_mime_zip;
+        if (name.endsWith(".tar")) return ModelType.attach_mime_tar;
+        if (name.endsWith(".mov")) return ModelType.attach_mime_mov;
+        if (name.endsWith(".mp3")) return ModelType.attach_mime_mp3;
+        return null;
+    }
+
+    private static class Level {
+        final File dir;
+        final int depth;
+
+        Level(File dir, int depth) {
+            this.dir = dir;
+            this.depth = depth;
+        }
+    }
+
+    private static class FoundFile {
+        final File file;
+        final String mimeType;
+
+        FoundFile(File file, String mimeType) {
+            this.file = file;
+            this.mimeType = mimeType;
+        }
+    }
+
+    private static class Cache {
+        final File root;
+        final List<FoundFile> files;
+        final long createdAt;
+
+        Cache(File root, List<FoundFile> files, long createdAt) {
+            this.root = root;
+            this.files = files;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.getstream.sdk.chat.utils;
+
+import com.getstream.sdk.chat.Chat;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Cache keys of signed image urls.
+ * <p>
+ * CDN signatures expire and are replaced, the key of a url is the url without its signature, so an
+ * image that was downloaded once is found in the cache after the signature changed. The key is
+ * defined by {@link com.getstream.sdk.chat.UrlSigner#getImageCacheKey(String)}, which strips the
+ * CloudFront, S3 and Google Cloud Storage parameters by default. Glide loads use it through
+ * {@link SignedGlideUrl}, Fresco through {@link SignedCacheKeyFactory}.
+ */
+public class ImageCacheKeys {
+
+    // CloudFront, S3 and Google Cloud Storage signatures
+    private static final Set<String> SIGNING_PARAMS = new HashSet<>(Arrays.asList(
+            "expires",
+            "signature",
+            "policy",
+            "key-pair-id",
+            "x-amz-algorithm",
+            "x-amz-credential",
+            "x-amz-date",
+            "x-amz-expires",
+            "x-amz-signedheaders",
+            "x-amz-signature",
+            "x-amz-security-token",
+            "x-goog-algorithm",
+            "x-goog-credential",
+            "x-goog-date",
+            "x-goog-expires",
+            "x-goog-signedheaders",
+            "x-goog-signature",
+            "googleaccessid"));
+
+    private ImageCacheKeys() {
+    }
+
+    /**
+     * @return the cache key of the signed url, as defined by the url signer
+     */
+    @NonNull
+    public static String forUrl(@NonNull String signedUrl) {
+        String key = Chat.getInstance().urlSigner().getImageCacheKey(signedUrl);
+        return key != null ? key : signedUrl;
+    }
+
+    /**
+     * @return the url without the signing parameters, the other parameters keep their order
+     */
+    @NonNull
+    public static String stripSignature(@NonNull String url) {
+        int queryStart = url.indexOf('?');
+        if (queryStart < 0) return url;
+        int fragmentStart = url.indexOf('#', queryStart);
+        int queryEnd = fragmentStart < 0 ? url.length() : fragmentStart;
+
+        StringBuilder stripped = new StringBuilder(url.length()).append(url, 0, queryStart);
+        char separator = '?';
+        int start = queryStart + 1;
+        while (start < queryEnd) {
+            int end = url.indexOf('&', start);
+            if (end < 0 || end > queryEnd) end = queryEnd;
+            int nameEnd = url.indexOf('=', start);
+            if (nameEnd < 0 || nameEnd > end) nameEnd = end;
+            String name = url.substring(start, nameEnd).toLowerCase(Locale.US);
+            if (end > start && !SIGNING_PARAMS.contains(name)) {
+                stripped.append(separator).append(url, start, end);
+                separator = '&';
+            }
+            start = end + 1;
+        }
+        return stripped.append(url, queryEnd, url.length()).toString();
+    }
+}
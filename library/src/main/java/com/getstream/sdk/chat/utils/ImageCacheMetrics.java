@@ -0,0 +1,137 @@
+package com.getstream.sdk.chat.utils;
+
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+import com.facebook.imagepipeline.listener.BaseRequestListener;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Cache hits of the remote images loaded by the library.
+ * <p>
+ * Glide loads report where their result came from through {@link #glideListener()}, Fresco loads
+ * through the {@link #frescoListener()} registered with the image pipeline. Counted are memory
+ * hits, disk hits and disk misses, which are downloads, so the disk hit rate shows whether images
+ * survive url signature changes and app restarts.
+ */
+public class ImageCacheMetrics {
+
+    private static final String EXTRA_CACHED_VALUE_FOUND = "cached_value_found";
+
+    private static ImageCacheMetrics instance;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong diskMisses = new AtomicLong();
+
+    private final GlideListener<Object> glideListener = new GlideListener<>();
+    private final FrescoListener frescoListener = new FrescoListener();
+
+    public static synchronized ImageCacheMetrics getInstance() {
+        if (instance == null) instance = new ImageCacheMetrics();
+        return instance;
+    }
+
+    /**
+     * @return a listener for Glide requests of remote images
+     */
+    @SuppressWarnings("unchecked")
+    @NonNull
+    public <T> RequestListener<T> glideListener() {
+        return (RequestListener<T>) glideListener;
+    }
+
+    /**
+     * @return a listener for the Fresco image pipeline
+     */
+    @NonNull
+    public com.facebook.imagepipeline.listener.RequestListener frescoListener() {
+        return frescoListener;
+    }
+
+    public long getMemoryHits() {
+        return memoryHits.get();
+    }
+
+    public long getDiskHits() {
+        return diskHits.get();
+    }
+
+    /**
+     * @return the images that were downloaded
+     */
+    public long getDiskMisses() {
+        return diskMisses.get();
+    }
+
+    /**
+     * @return share of the disk cache lookups that found the image, -1 before the first lookup
+     */
+    public float getDiskHitRate() {
+        long hits = diskHits.get();
+        long lookups = hits + diskMisses.get();
+        return lookups == 0 ? -1 : (float) hits / lookups;
+    }
+
+    public void reset() {
+        memoryHits.set(0);
+        diskHits.set(0);
+        diskMisses.set(0);
+    }
+
+    private class GlideListener<R> implements RequestListener<R> {
+
+        @Override
+        public boolean onLoadFailed(@Nullable GlideException e, Object model, Target<R> target, boolean isFirstResource) {
+            return false;
+        }
+
+        @Override
+        public boolean onResourceReady(R resource, Object model, Target<R> target, DataSource dataSource, boolean isFirstResource) {
+            switch (dataSource) {
+                case MEMORY_CACHE:
+                    memoryHits.incrementAndGet();
+                    break;
+                case DATA_DISK_CACHE:
+                case RESOURCE_DISK_CACHE:
+                    diskHits.incrementAndGet();
+                    break;
+                case REMOTE:
+                    diskMisses.incrementAndGet();
+                    break;
+                default:
+                    break;
+            }
+            return false;
+        }
+    }
+
+    private class FrescoListener extends BaseRequestListener {
+
+        @Override
+        public void onProducerFinishWithSuccess(String requestId, String producerName, @Nullable Map<String, String> extraMap) {
+            if (extraMap == null || !extraMap.containsKey(EXTRA_CACHED_VALUE_FOUND)) return;
+            boolean found = Boolean.parseBoolean(extraMap.get(EXTRA_CACHED_VALUE_FOUND));
+            if (producerName.contains("DiskCache")) {
+                if (found) {
+                    diskHits.incrementAndGet();
+                } else {
+                    diskMisses.incrementAndGet();
+                }
+            } else if (producerName.contains("BitmapMemoryCache") && found) {
+                memoryHits.incrementAndGet();
+            }
+        }
+
+        @Override
+        public boolean requiresExtraMap(String requestId) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.getstream.sdk.chat.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.drawable.Drawable;
+import android.text.TextUtils;
+import android.widget.ImageView;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.resource.bitmap.DownsampleStrategy;
+import com.bumptech.glide.request.RequestOptions;
+import com.getstream.sdk.chat.Chat;
+import com.getstream.sdk.chat.R;
+
+import androidx.annotation.DrawableRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * How the message and channel lists load remote images.
+ * <p>
+ * Requests are sized up front, avatars to the avatar size and attachments to the screen width and
+ * the attachment height. The image is decoded just large enough to cover that box and the view
+ * crops it, so a large upload is never decoded at full resolution into a bubble and an image always
+ * lands under the same memory cache key. Bitmaps are {@code RGB_565} unless the image has alpha,
+ * attachments show their thumbnail url until the full image is there and the cache key of a url
+ * leaves out the url signing, see {@link ImageCacheKeys}. Cache hits are counted in
+ * {@link ImageCacheMetrics}.
+ */
+public class ImageLoader {
+
+    private ImageLoader() {
+    }
+
+    /**
+     * loads the avatar into a view that crops it to a circle itself, like a
+     * {@link com.getstream.sdk.chat.utils.roundedImageView.CircularImageView}
+     */
+    public static void loadAvatar(@NonNull ImageView view, @Nullable String url, int width, int height) {
+        avatarRequest(view.getContext(), url, width, height).into(view);
+    }
+
+    @NonNull
+    public static RequestBuilder<Bitmap> avatarRequest(@NonNull Context context, @Nullable String url, int width, int height) {
+        return Glide.with(context)
+                .asBitmap()
+                .load(model(url))
+                .apply(sized(width, height))
+                .addListener(ImageCacheMetrics.getInstance().glideListener());
+    }
+
+    /**
+     * loads the attachment into an attachment thumb of the message list
+     *
+     * @param thumbUrl    shown until the full image is loaded, if it is another url
+     * @param placeholder shown until anything is loaded, 0 for none
+     */
+    public static void loadAttachment(@NonNull ImageView view,
+                                      @Nullable String url,
+                                      @Nullable String thumbUrl,
+                                      @DrawableRes int placeholder) {
+        RequestBuilder<Drawable> request = attachmentRequest(view.getContext(), url, thumbUrl);
+        if (placeholder != 0) request = request.placeholder(placeholder);
+        request.into(view);
+    }
+
+    @NonNull
+    public static RequestBuilder<Drawable> attachmentRequest(@NonNull Context context,
+                                                             @Nullable String url,
+                                                             @Nullable String thumbUrl) {
+        int width = getAttachmentWidth(context);
+        int height = getAttachmentHeight(context);
+        RequestBuilder<Drawable> request = request(context, url)
+                .apply(sized(width, height));
+        if (!TextUtils.isEmpty(thumbUrl) && !thumbUrl.equals(url)) {
+            request = request.thumbnail(request(context, thumbUrl)
+                    .apply(sized(width, height).downsample(DownsampleStrategy.CENTER_INSIDE)));
+        }
+        return request;
+    }
+
+    /**
+     * @return a request for a remote image with the signed cache key, for views that size it
+     * themselves
+     */
+    @NonNull
+    public static RequestBuilder<Drawable> request(@NonNull Context context, @Nullable String url) {
+        return Glide.with(context)
+                .load(model(url))
+                .addListener(ImageCacheMetrics.getInstance().glideListener());
+    }
+
+    public static int getAttachmentWidth(@NonNull Context context) {
+        return context.getResources().getDisplayMetrics().widthPixels;
+    }
+
+    public static int getAttachmentHeight(@NonNull Context context) {
+        return context.getResources().getDimensionPixelSize(R.dimen.stream_attach_image_height);
+    }
+
+    /**
+     * @return the signed url with a cache key that stays the same when the signature changes
+     */
+    @Nullable
+    public static SignedGlideUrl model(@Nullable String url) {
+        if (TextUtils.isEmpty(url)) return null;
+        String signed = Chat.getInstance().urlSigner().signImageUrl(url);
+        return TextUtils.isEmpty(signed) ? null : new SignedGlideUrl(signed);
+    }
+
+    private static RequestOptions sized(int width, int height) {
+        // no crop here, the views crop and the bitmap only has to cover them
+        return new RequestOptions()
+                .override(width, height)
+                .downsample(DownsampleStrategy.CENTER_OUTSIDE)
+                .format(DecodeFormat.PREFER_RGB_565)
+                .dontTransform();
+    }
+}
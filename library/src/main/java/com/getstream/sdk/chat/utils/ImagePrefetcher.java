@@ -0,0 +1,78 @@
+package com.getstream.sdk.chat.utils;
+
+import android.content.Context;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.request.target.Target;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+
+/**
+ * Loads the images of list items before they are bound, like Glide's {@code ListPreloader}.
+ * <p>
+ * The owner of the list passes the items that scroll into view next, nearest first. Their requests
+ * are started into preload targets, which leave the results in Glide's memory and disk caches, so
+ * the requests have to be sized and configured exactly like the ones of the bound views. Requests
+ * of items that are no longer ahead, because they were scrolled past or the direction changed,
+ * are cancelled. Requests are identified by a key, so an image shared by several items, like an
+ * avatar, is loaded once and a request survives the items shifting in the list.
+ */
+public class ImagePrefetcher<T> {
+
+    public interface RequestProvider<T> {
+        /**
+         * adds the requests of the item, the key has to be the same for the same image and size
+         */
+        void addRequests(@NonNull T item, @NonNull Map<String, RequestBuilder<?>> requests);
+    }
+
+    private final RequestManager requestManager;
+    private final RequestProvider<T> provider;
+    private final Map<String, Target<?>> targets = new HashMap<>();
+
+    public ImagePrefetcher(@NonNull Context context, @NonNull RequestProvider<T> provider) {
+        this.requestManager = Glide.with(context);
+        this.provider = provider;
+    }
+
+    /**
+     * loads the images of the items, nearest first, and cancels the requests of other items
+     */
+    @MainThread
+    public void prefetch(@NonNull List<T> items) {
+        Map<String, RequestBuilder<?>> requests = new LinkedHashMap<>();
+        for (T item : items) provider.addRequests(item, requests);
+
+        Iterator<Map.Entry<String, Target<?>>> iterator = targets.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Target<?>> entry = iterator.next();
+            if (requests.containsKey(entry.getKey())) continue;
+            // a finished preload cleared itself already, this only stops running ones
+            requestManager.clear(entry.getValue());
+            iterator.remove();
+        }
+
+        for (Map.Entry<String, RequestBuilder<?>> request : requests.entrySet()) {
+            if (targets.containsKey(request.getKey())) continue;
+            targets.put(request.getKey(), request.getValue().preload());
+        }
+    }
+
+    /**
+     * cancels all the running requests
+     */
+    @MainThread
+    public void cancel() {
+        for (Target<?> target : targets.values()) requestManager.clear(target);
+        targets.clear();
+    }
+}
@@ -0,0 +1,265 @@
+package com.getstream.sdk.chat.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+import io.getstream.chat.android.client.logger.ChatLogger;
+import io.getstream.chat.android.client.logger.TaggedLogger;
+
+/**
+ * Shrinks images before they are uploaded.
+ * <p>
+ * The image is decoded with the largest {@code inSampleSize} that keeps it above the max
+ * dimension, scaled down to the max dimension, rotated and mirrored upright according to its EXIF
+ * orientation and encoded with the configured format and quality. The original file is uploaded
+ * when the result is not smaller, or when it can't be decoded. The {@link UploadManager} deletes
+ * the processed file once its upload is done or cancelled.
+ */
+public class ImagePreprocessor {
+
+    public interface Listener {
+        /**
+         * called on the preprocessing thread
+         *
+         * @param file       the file to upload, the original one if it could not be made smaller
+         * @param bytesSaved bytes that won't be uploaded, 0 if the original is kept
+         */
+        void onProcessed(@NonNull File file, long bytesSaved);
+    }
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    private final TaggedLogger logger = ChatLogger.Companion.get("ImagePreprocessor");
+
+    private final File outputDir;
+    private final int maxDimension;
+    private final int quality;
+    private final Bitmap.CompressFormat format;
+    private final AtomicLong totalBytesSaved = new AtomicLong();
+
+    private ImagePreprocessor(Builder builder) {
+        this.outputDir = UploadManager.temporaryDir(builder.context);
+        this.maxDimension = builder.maxDimension;
+        this.quality = builder.quality;
+        this.format = builder.format;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    public int getQuality() {
+        return quality;
+    }
+
+    public Bitmap.CompressFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * @return bytes saved by all the images processed so far
+     */
+    public long getTotalBytesSaved() {
+        return totalBytesSaved.get();
+    }
+
+    public void process(@NonNull File source, @NonNull Listener listener) {
+        executor.execute(() -> {
+            File result = processBlocking(source);
+            listener.onProcessed(result, Math.max(0, source.length() - result.length()));
+        });
+    }
+
+    /**
+     * @return the processed image, or the source when it could not be made smaller
+     */
+    @WorkerThread
+    @NonNull
+    public File processBlocking(@NonNull File source) {
+        try {
+            File result = shrink(source);
+            if (result == null || result.length() >= source.length()) {
+                if (result != null) result.delete();
+                return source;
+            }
+            long saved = source.length() - result.length();
+            totalBytesSaved.addAndGet(saved);
+            logger.logI("shrunk " + source.getName() + " by " + saved + " bytes");
+            return result;
+        } catch (IOException | OutOfMemoryError e) {
+            logger.logE("failed to shrink " + source.getName() + ": " + e.getMessage());
+            return source;
+        }
+    }
+
+    private File shrink(File source) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(source.getPath(), options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) return null;
+        // animated gifs would lose their frames
+        if ("image/gif".equals(options.outMimeType)) return null;
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize(options.outWidth, options.outHeight, maxDimension);
+        Bitmap bitmap = BitmapFactory.decodeFile(source.getPath(), options);
+        if (bitmap == null) return null;
+
+        Matrix matrix = new Matrix();
+        float scale = Math.min(1f, (float) maxDimension / Math.max(bitmap.getWidth(), bitmap.getHeight()));
+        if (scale < 1f) matrix.postScale(scale, scale);
+        orient(matrix, source);
+
+        if (!matrix.isIdentity()) {
+            Bitmap transformed = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+            if (transformed != bitmap) bitmap.recycle();
+            bitmap = transformed;
+        }
+
+        // jpeg has no alpha channel, transparent images keep it with webp
+        Bitmap.CompressFormat compressFormat = format == Bitmap.CompressFormat.JPEG && bitmap.hasAlpha()
+                ? Bitmap.CompressFormat.WEBP
+                : format;
+
+        if (!outputDir.exists() && !outputDir.mkdirs()) throw new IOException("can't create " + outputDir);
+        String name = baseName(source) + "_" + Integer.toHexString(source.getAbsolutePath().hashCode());
+        File target = new File(outputDir, name + extension(compressFormat));
+        try (FileOutputStream out = new FileOutputStream(target)) {
+            bitmap.compress(compressFormat, quality, out);
+        } finally {
+            bitmap.recycle();
+        }
+        return target;
+    }
+
+    /**
+     * @return the largest power of 2 that keeps the decoded image at least maxDimension wide or high
+     */
+    static int sampleSize(int width, int height, int maxDimension) {
+        int sampleSize = 1;
+        int longest = Math.max(width, height);
+        while (longest / (sampleSize * 2) >= maxDimension) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * adds the rotation and mirroring that turn the image upright according to its EXIF orientation
+     */
+    private static void orient(Matrix matrix, File source) {
+        int orientation;
+        try {
+            orientation = new ExifInterface(source.getPath())
+                    .getAttributeInt(ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+        } catch (IOException e) {
+            return;
+        }
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL:
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                matrix.postRotate(180);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                matrix.postScale(1, -1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                matrix.postRotate(90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                matrix.postRotate(90);
+                break;
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                matrix.postRotate(270);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                matrix.postRotate(270);
+                break;
+        }
+    }
+
+    private static String baseName(File file) {
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private static String extension(Bitmap.CompressFormat format) {
+        switch (format) {
+            case PNG:
+                return ".png";
+            case WEBP:
+                return ".webp";
+            default:
+                return ".jpg";
+        }
+    }
+
+    /**
+     * @return the mime type of a file written by the preprocessor
+     */
+    static String mimeType(File file) {
+        String name = file.getName();
+        if (name.endsWith(".png")) return "image/png";
+        if (name.endsWith(".webp")) return "image/webp";
+        return "image/jpeg";
+    }
+
+    public static class Builder {
+
+        private final Context context;
+        private int maxDimension = 2048;
+        private int quality = 85;
+        private Bitmap.CompressFormat format = Bitmap.CompressFormat.JPEG;
+
+        public Builder(@NonNull Context context) {
+            this.context = context.getApplicationContext();
+        }
+
+        /**
+         * @param maxDimension longest side of the uploaded image in pixels, 2048 by default
+         */
+        public Builder maxDimension(int maxDimension) {
+            if (maxDimension < 1) throw new IllegalArgumentException("maxDimension must be at least 1");
+            this.maxDimension = maxDimension;
+            return this;
+        }
+
+        /**
+         * @param quality encoder quality from 0 to 100, 85 by default
+         */
+        public Builder quality(int quality) {
+            if (quality < 0 || quality > 100) throw new IllegalArgumentException("quality must be between 0 and 100");
+            this.quality = quality;
+            return this;
+        }
+
+        /**
+         * @param format {@link Bitmap.CompressFormat#JPEG} (default) or {@link Bitmap.CompressFormat#WEBP}
+         */
+        public Builder format(@NonNull Bitmap.CompressFormat format) {
+            this.format = format;
+            return this;
+        }
+
+        public ImagePreprocessor build() {
+            return new ImagePreprocessor(this);
+        }
+    }
+}
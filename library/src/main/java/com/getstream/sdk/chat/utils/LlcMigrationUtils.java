@@ -2,6 +2,7 @@ package com.getstream.sdk.chat.utils;
 
 
 import android.text.TextUtils;
+import android.util.LruCache;
 
 import com.getstream.sdk.chat.Chat;
 import com.getstream.sdk.chat.R;
@@ -23,7 +24,25 @@ import static com.getstream.sdk.chat.enums.Dates.YESTERDAY;
 
 public class LlcMigrationUtils {
 
-    private static Map<String, String> reactionTypes;
+    // reaction type to emoji, in the order they are offered
+    private static final Map<String, String> reactionTypes;
+    private static final List<String> reactionTypeKeys;
+
+    // initials by name, NO_INITIALS stands for names without any
+    private static final LruCache<String, String> initials = new LruCache<>(500);
+    private static final String NO_INITIALS = new String();
+
+    static {
+        Map<String, String> types = new LinkedHashMap<>();
+        types.put("like", "\uD83D\uDC4D");
+        types.put("love", "\u2764\uFE0F");
+        types.put("haha", "\uD83D\uDE02");
+        types.put("wow", "\uD83D\uDE32");
+        types.put("sad", " \uD83D\uDE41");
+        types.put("angry", "\uD83D\uDE21");
+        reactionTypes = Collections.unmodifiableMap(types);
+        reactionTypeKeys = Collections.unmodifiableList(new ArrayList<>(types.keySet()));
+    }
 
     public static String getInitials(User user) {
 
@@ -33,22 +52,32 @@ public class LlcMigrationUtils {
             name = "";
         }
 
+        return initialsOf(name);
+    }
+
+    /**
+     * @return the first letters of the first two words, cached by name since every avatar bind asks
+     * for them
+     */
+    @Nullable
+    private static String initialsOf(String name) {
+        String cached = initials.get(name);
+        if (cached != null) return cached == NO_INITIALS ? null : cached;
+
         String[] names = name.split(" ");
-        String firstName = names[0];
-        String lastName = null;
-        try {
-            lastName = names[1];
-        } catch (Exception e) {
-        }
+        String firstName = names.length > 0 ? names[0] : null;
+        String lastName = names.length > 1 ? names[1] : null;
 
+        String result = null;
         if (!TextUtils.isEmpty(firstName) && TextUtils.isEmpty(lastName))
-            return firstName.substring(0, 1).toUpperCase();
-        if (TextUtils.isEmpty(firstName) && !TextUtils.isEmpty(lastName))
-            return lastName.substring(0, 1).toUpperCase();
+            result = firstName.substring(0, 1).toUpperCase();
+        else if (TextUtils.isEmpty(firstName) && !TextUtils.isEmpty(lastName))
+            result = lastName.substring(0, 1).toUpperCase();
+        else if (!TextUtils.isEmpty(firstName) && !TextUtils.isEmpty(lastName))
+            result = firstName.substring(0, 1).toUpperCase() + lastName.substring(0, 1).toUpperCase();
 
-        if (!TextUtils.isEmpty(firstName) && !TextUtils.isEmpty(lastName))
-            return firstName.substring(0, 1).toUpperCase() + lastName.substring(0, 1).toUpperCase();
-        return null;
+        initials.put(name, result == null ? NO_INITIALS : result);
+        return result;
     }
 
     @Nullable
@@ -374,40 +403,24 @@ public class LlcMigrationUtils {
         if (name == null) {
             return "";
         }
-        String[] names = name.split(" ");
-        String firstName = names[0];
-        String lastName = null;
-        try {
-            lastName = names[1];
-        } catch (Exception e) {
-        }
-
-        if (!TextUtils.isEmpty(firstName) && TextUtils.isEmpty(lastName))
-            return firstName.substring(0, 1).toUpperCase();
-        if (TextUtils.isEmpty(firstName) && !TextUtils.isEmpty(lastName))
-            return lastName.substring(0, 1).toUpperCase();
-
-        if (!TextUtils.isEmpty(firstName) && !TextUtils.isEmpty(lastName))
-            return firstName.substring(0, 1).toUpperCase() + lastName.substring(0, 1).toUpperCase();
-        return null;
+        return initialsOf(name);
     }
 
+    /**
+     * @return the emoji of every reaction type, iterated in the order they are offered, the map
+     * can't be modified
+     */
     public static Map<String, String> getReactionTypes() {
-        if (reactionTypes == null) {
-            reactionTypes = new HashMap<String, String>() {
-                {
-                    put("like", "\uD83D\uDC4D");
-                    put("love", "\u2764\uFE0F");
-                    put("haha", "\uD83D\uDE02");
-                    put("wow", "\uD83D\uDE32");
-                    put("sad", " \uD83D\uDE41");
-                    put("angry", "\uD83D\uDE21");
-                }
-            };
-        }
         return reactionTypes;
     }
 
+    /**
+     * @return the reaction types in the order they are offered
+     */
+    public static List<String> getReactionTypeKeys() {
+        return reactionTypeKeys;
+    }
+
     public static int getIcon(Attachment attachment) {
         return getIcon(attachment.getMimeType());
     }
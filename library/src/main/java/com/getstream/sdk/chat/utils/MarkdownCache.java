@@ -0,0 +1,260 @@
+package com.getstream.sdk.chat.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Spanned;
+import android.text.TextUtils;
+import android.util.LruCache;
+import android.widget.TextView;
+
+import com.getstream.sdk.chat.ChatMarkdown;
+import com.getstream.sdk.chat.R;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+import io.getstream.chat.android.client.logger.ChatLogger;
+import io.getstream.chat.android.client.logger.TaggedLogger;
+import io.getstream.chat.android.client.models.Message;
+import io.noties.markwon.image.AsyncDrawableSpan;
+
+/**
+ * Renders the markdown of messages on a background thread and keeps the result.
+ * <p>
+ * Messages are rendered ahead of time when they reach a list, binding a message only sets the
+ * cached spans. A message that was not rendered yet shows its plain text and gets the spans as soon
+ * as they are ready. Entries are keyed by message id, update time and text and the cache is bounded
+ * by the number of characters it holds. Messages about to scroll into view can also be measured
+ * ahead of time in a {@link TextLayoutCache}. Text with images is rendered again for every view
+ * that shows it, its drawables are scheduled against a single view.
+ */
+public class MarkdownCache {
+
+    private static final int DEFAULT_MAX_CHARS = 256 * 1024;
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private final TaggedLogger logger = ChatLogger.Companion.get("MarkdownCache");
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Set<String> rendering = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    // views that wait for the prerender of their text, only used on the main thread
+    private final Map<String, List<TextView>> waiting = new HashMap<>();
+
+    private final ChatMarkdown markdown;
+    private final LruCache<String, Spanned> cache;
+    private final TextLayoutCache layouts = new TextLayoutCache();
+    // set once the markdown turned out to render only into views
+    private volatile boolean viewOnly;
+
+    public MarkdownCache(@NonNull ChatMarkdown markdown) {
+        this(markdown, DEFAULT_MAX_CHARS);
+    }
+
+    /**
+     * @param maxChars characters of rendered text kept in memory
+     */
+    public MarkdownCache(@NonNull ChatMarkdown markdown, int maxChars) {
+        this.markdown = markdown;
+        this.cache = new LruCache<String, Spanned>(maxChars) {
+            @Override
+            protected int sizeOf(String key, Spanned value) {
+                return Math.max(1, value.length());
+            }
+        };
+    }
+
+    /**
+     * renders the messages that are not cached yet on a background thread
+     */
+    public void prerender(@NonNull List<Message> messages) {
+        for (Message message : messages) prerender(message);
+    }
+
+    public void prerender(@Nullable Message message) {
+        if (viewOnly || message == null || TextUtils.isEmpty(message.getText())) return;
+        String key = key(message);
+        if (cache.get(key) != null || !rendering.add(key)) return;
+        executor.execute(() -> {
+            Spanned rendered = null;
+            try {
+                rendered = render(key, message);
+            } finally {
+                rendering.remove(key);
+                Spanned result = rendered;
+                handler.post(() -> deliver(key, message, result));
+            }
+        });
+    }
+
+    /**
+     * renders and measures the message on a background thread for a message view that has the
+     * text style of the own or the other messages
+     */
+    public void prefetchLayout(@Nullable Message message, boolean mine) {
+        if (viewOnly || message == null || TextUtils.isEmpty(message.getText())) return;
+        // deleted messages are short and have a style of their own
+        if (message.getDeletedAt() != null) return;
+        String key = key(message);
+        layouts.prefetch(key, mine, () -> render(key, message));
+    }
+
+    @NonNull
+    public TextLayoutCache getTextLayoutCache() {
+        return layouts;
+    }
+
+    /**
+     * shows the rendered markdown of the message, its plain text until the rendering is done
+     */
+    @MainThread
+    public void bind(@NonNull TextView textView, @NonNull Message message) {
+        bindText(textView, message, null);
+    }
+
+    /**
+     * like {@link #bind(TextView, Message)}, the text is set already measured if it was prefetched
+     * with {@link #prefetchLayout(Message, boolean)}; the text style has to be applied before
+     */
+    @MainThread
+    public void bind(@NonNull TextView textView, @NonNull Message message, boolean mine) {
+        bindText(textView, message, mine);
+    }
+
+    private void bindText(TextView textView, Message message, @Nullable Boolean mine) {
+        String key = key(message);
+        textView.setTag(R.id.stream_markdown_key, key);
+
+        PrecomputedTextCompat.Params params = null;
+        if (mine != null && message.getDeletedAt() == null) {
+            params = TextViewCompat.getTextMetricsParams(textView);
+            layouts.setParams(mine, params);
+        }
+
+        Spanned cached = cache.get(key);
+        if (cached != null && !hasImages(cached)) {
+            PrecomputedTextCompat precomputed = params == null ? null : layouts.get(key, params);
+            markdown.setRendered(textView, precomputed != null ? precomputed : cached);
+            return;
+        }
+
+        if (viewOnly) {
+            markdown.setText(textView, StringUtility.getDeletedOrMentionedText(message));
+            return;
+        }
+        textView.setText(MentionTransformer.toText(message));
+        if (cached == null && rendering.contains(key)) {
+            // the prerender of the text is running, it sets the text when it is done
+            List<TextView> views = waiting.get(key);
+            if (views == null) {
+                views = new ArrayList<>();
+                waiting.put(key, views);
+            }
+            views.add(textView);
+            return;
+        }
+        renderInto(textView, key, message);
+    }
+
+    /**
+     * renders the text on the background thread and sets it if the view still shows the message,
+     * the view is only touched on the main thread
+     */
+    @MainThread
+    private void renderInto(TextView textView, String key, Message message) {
+        executor.execute(() -> {
+            Spanned rendered = render(key, message);
+            if (rendered != null && hasImages(rendered)) rendered = renderUncached(message);
+            Spanned result = rendered;
+            handler.post(() -> setRendered(textView, key, message, result));
+        });
+    }
+
+    @MainThread
+    private void deliver(String key, Message message, @Nullable Spanned rendered) {
+        List<TextView> views = waiting.remove(key);
+        if (views == null) return;
+        for (TextView textView : views) {
+            if (rendered != null && hasImages(rendered)) {
+                renderInto(textView, key, message);
+            } else {
+                setRendered(textView, key, message, rendered);
+            }
+        }
+    }
+
+    @MainThread
+    private void setRendered(TextView textView, String key, Message message, @Nullable Spanned rendered) {
+        if (!key.equals(textView.getTag(R.id.stream_markdown_key))) return;
+        if (rendered != null) {
+            markdown.setRendered(textView, rendered);
+        } else {
+            markdown.setText(textView, StringUtility.getDeletedOrMentionedText(message));
+        }
+    }
+
+    /**
+     * drops all the rendered text, e.g. after the markdown styling changed
+     */
+    public void clear() {
+        cache.evictAll();
+    }
+
+    @Nullable
+    private Spanned render(String key, Message message) {
+        Spanned rendered = cache.get(key);
+        if (rendered != null) return rendered;
+        try {
+            rendered = renderMarkdown(message);
+        } catch (RuntimeException e) {
+            logger.logE("failed to render " + message.getId() + ": " + e.getMessage());
+            return null;
+        }
+        if (rendered == null) {
+            viewOnly = true;
+        } else {
+            cache.put(key, rendered);
+        }
+        return rendered;
+    }
+
+    /**
+     * @return text of its own for a single view, null if it can't be rendered
+     */
+    @Nullable
+    private Spanned renderUncached(Message message) {
+        try {
+            return renderMarkdown(message);
+        } catch (RuntimeException e) {
+            logger.logE("failed to render " + message.getId() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Nullable
+    private Spanned renderMarkdown(Message message) {
+        Spanned rendered = markdown.render(MentionTransformer.toText(message));
+        // mentions are styled on the rendered text, they don't go through markdown
+        return rendered == null ? null : MentionTransformer.applyMentions(rendered, message);
+    }
+
+    private static boolean hasImages(Spanned text) {
+        return text.getSpans(0, text.length(), AsyncDrawableSpan.class).length > 0;
+    }
+
+    private static String key(Message message) {
+        long updatedAt = message.getUpdatedAt() == null ? 0 : message.getUpdatedAt().getTime();
+        return message.getId() + "|" + updatedAt + "|" + (message.getDeletedAt() != null) + "|" + message.getText().hashCode();
+    }
+}
@@ -0,0 +1,196 @@
+package com.getstream.sdk.chat.utils;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.MediaStore;
+
+import com.getstream.sdk.chat.model.AttachmentMetaData;
+import com.getstream.sdk.chat.model.ModelType;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import io.getstream.chat.android.client.logger.ChatLogger;
+import io.getstream.chat.android.client.logger.TaggedLogger;
+
+/**
+ * Loads the images and videos of the gallery page by page.
+ * <p>
+ * A single MediaStore cursor with only the columns the picker shows is read on a background
+ * thread. The total is reported first, so the list can lay out placeholders, then every
+ * {@code pageSize} rows are handed to the main thread while the next page is read. Column indices
+ * are resolved once per cursor instead of once per row.
+ */
+public class MediaStoreLoader {
+
+    public interface Listener {
+        /**
+         * called on the main thread before the first page
+         *
+         * @param total number of rows, rows pointing to deleted files are dropped later on
+         */
+        void onStart(int total);
+
+        void onPage(@NonNull List<AttachmentMetaData> page);
+
+        /**
+         * @param loaded number of attachments delivered in all the pages
+         */
+        void onComplete(int loaded);
+    }
+
+    private static final int DEFAULT_PAGE_SIZE = 60;
+
+    private static final String[] PROJECTION = {
+            MediaStore.Files.FileColumns.DATA,
+            MediaStore.Files.FileColumns.MEDIA_TYPE,
+            MediaStore.Video.VideoColumns.DURATION,
+    };
+
+    private static final String SELECTION = MediaStore.Files.FileColumns.MEDIA_TYPE + "="
+            + MediaStore.Files.FileColumns.MEDIA_TYPE_IMAGE
+            + " OR "
+            + MediaStore.Files.FileColumns.MEDIA_TYPE + "="
+            + MediaStore.Files.FileColumns.MEDIA_TYPE_VIDEO;
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private final TaggedLogger logger = ChatLogger.Companion.get("MediaStoreLoader");
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    private final ContentResolver contentResolver;
+    private final int pageSize;
+
+    private Future<?> running;
+    // every load gets a new generation, callbacks of older loads are dropped
+    private volatile int generation;
+
+    public MediaStoreLoader(@NonNull Context context) {
+        this(context, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * @param pageSize rows read before they are shown
+     */
+    public MediaStoreLoader(@NonNull Context context, int pageSize) {
+        this.contentResolver = context.getContentResolver();
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * starts loading, a load that is still running is cancelled
+     */
+    @MainThread
+    public void load(@NonNull Listener listener) {
+        cancel();
+        int current = generation;
+        running = executor.submit(() -> read(listener, current));
+    }
+
+    /**
+     * stops loading, no callback is called afterwards
+     */
+    @MainThread
+    public void cancel() {
+        generation++;
+        handler.removeCallbacksAndMessages(null);
+        if (running != null) {
+            running.cancel(false);
+            running = null;
+        }
+    }
+
+    private void read(Listener listener, int current) {
+        Uri queryUri = MediaStore.Files.getContentUri("external");
+        Cursor cursor = contentResolver.query(queryUri,
+                PROJECTION,
+                SELECTION,
+                null,
+                MediaStore.Files.FileColumns.DATE_ADDED + " DESC");
+
+        if (cursor == null) {
+            logger.logE("ContentResolver query return null");
+            post(current, () -> {
+                listener.onStart(0);
+                listener.onComplete(0);
+            });
+            return;
+        }
+
+        try {
+            int total = cursor.getCount();
+            post(current, () -> listener.onStart(total));
+
+            Columns columns = new Columns(cursor);
+            int loaded = 0;
+            List<AttachmentMetaData> page = new ArrayList<>(pageSize);
+            while (current == generation && cursor.moveToNext()) {
+                AttachmentMetaData attachment = columns.read(cursor);
+                if (attachment != null) page.add(attachment);
+
+                if (page.size() == pageSize) {
+                    loaded += page.size();
+                    postPage(current, page, listener);
+                    page = new ArrayList<>(pageSize);
+                }
+            }
+            if (current != generation) return;
+
+            loaded += page.size();
+            if (!page.isEmpty()) postPage(current, page, listener);
+            int count = loaded;
+            post(current, () -> listener.onComplete(count));
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private void postPage(int current, List<AttachmentMetaData> page, Listener listener) {
+        post(current, () -> listener.onPage(page));
+    }
+
+    private void post(int current, Runnable runnable) {
+        handler.post(() -> {
+            if (current == generation) runnable.run();
+        });
+    }
+
+    private static class Columns {
+        final int data;
+        final int mediaType;
+        final int duration;
+
+        Columns(Cursor cursor) {
+            data = cursor.getColumnIndexOrThrow(MediaStore.Files.FileColumns.DATA);
+            mediaType = cursor.getColumnIndexOrThrow(MediaStore.Files.FileColumns.MEDIA_TYPE);
+            duration = cursor.getColumnIndexOrThrow(MediaStore.Video.VideoColumns.DURATION);
+        }
+
+        AttachmentMetaData read(Cursor cursor) {
+            String filePath = cursor.getString(data);
+            if (filePath == null) return null;
+            File file = new File(filePath);
+            if (!file.exists()) return null;
+
+            AttachmentMetaData attachment = new AttachmentMetaData(file);
+            int type = cursor.getInt(mediaType);
+            if (type == Constant.MEDIA_TYPE_IMAGE) {
+                attachment.type = ModelType.attach_image;
+            } else if (type == Constant.MEDIA_TYPE_VIDEO) {
+                attachment.videoLength = (int) (cursor.getLong(duration) / 1000);
+                Utils.configFileAttachment(attachment, file, ModelType.attach_file, ModelType.attach_mime_mp4);
+            }
+            return attachment;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.getstream.sdk.chat.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Finds {@code @name} mentions of a set of names in one pass over a text.
+ * <p>
+ * The names are compiled into an Aho-Corasick automaton, the text is read once and every position
+ * reports the names that end there. Overlapping mentions are resolved left to right, the longest
+ * name wins at a given {@code @}, so {@code @Anna} is not read as {@code @Ann}.
+ */
+public class MentionMatcher {
+
+    private final Node root = new Node();
+
+    public MentionMatcher(@NonNull Collection<String> names) {
+        for (String name : names) {
+            if (name == null || name.isEmpty()) continue;
+            add("@" + name);
+        }
+        link();
+    }
+
+    /**
+     * @return start (the {@code @}) and end (exclusive) of the mentions between start and end of
+     * the text, ordered and not overlapping
+     */
+    @NonNull
+    public List<int[]> find(@NonNull CharSequence text, int start, int end) {
+        // longest mention starting at every position, 0 for none
+        int[] longest = null;
+        Node node = root;
+        for (int i = start; i < end; i++) {
+            node = node.step(text.charAt(i));
+            for (int length : node.lengths) {
+                int from = i - length + 1;
+                if (from < start) continue;
+                if (longest == null) longest = new int[end - start];
+                if (length > longest[from - start]) longest[from - start] = length;
+            }
+        }
+
+        List<int[]> mentions = new ArrayList<>();
+        if (longest == null) return mentions;
+        for (int i = 0; i < longest.length; i++) {
+            if (longest[i] == 0) continue;
+            mentions.add(new int[]{start + i, start + i + longest[i]});
+            i += longest[i] - 1;
+        }
+        return mentions;
+    }
+
+    private void add(String pattern) {
+        Node node = root;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            Node next = node.next.get(c);
+            if (next == null) {
+                next = new Node();
+                node.next.put(c, next);
+            }
+            node = next;
+        }
+        node.lengths = new int[]{pattern.length()};
+    }
+
+    /**
+     * sets the failure links breadth first and merges the lengths of the names that end in the
+     * suffixes of a node into it
+     */
+    private void link() {
+        Queue<Node> queue = new ArrayDeque<>();
+        root.fail = root;
+        for (Node child : root.next.values()) {
+            child.fail = root;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            for (Map.Entry<Character, Node> entry : node.next.entrySet()) {
+                Node child = entry.getValue();
+                Node fail = node.fail;
+                while (fail != root && !fail.next.containsKey(entry.getKey())) fail = fail.fail;
+                Node target = fail.next.get(entry.getKey());
+                child.fail = target != null && target != child ? target : root;
+                child.lengths = merge(child.lengths, child.fail.lengths);
+                queue.add(child);
+            }
+        }
+    }
+
+    private static int[] merge(int[] a, int[] b) {
+        if (b.length == 0) return a;
+        if (a.length == 0) return b;
+        int[] merged = new int[a.length + b.length];
+        System.arraycopy(a, 0, merged, 0, a.length);
+        System.arraycopy(b, 0, merged, a.length, b.length);
+        return merged;
+    }
+
+    private class Node {
+        final Map<Character, Node> next = new HashMap<>();
+        Node fail;
+        // lengths of the names that end at this node
+        int[] lengths = new int[0];
+
+        Node step(char c) {
+            Node node = this;
+            while (true) {
+                Node target = node.next.get(c);
+                if (target != null) return target;
+                if (node == root) return root;
+                node = node.fail;
+            }
+        }
+    }
+}
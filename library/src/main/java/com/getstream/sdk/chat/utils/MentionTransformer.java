@@ -0,0 +1,175 @@
+package com.getstream.sdk.chat.utils;
+
+import android.graphics.Typeface;
+import android.text.Spannable;
+import android.text.SpannableString;
+import android.text.Spanned;
+import android.text.style.StyleSpan;
+import android.util.LruCache;
+
+import com.getstream.sdk.chat.Chat;
+import com.getstream.sdk.chat.R;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import io.getstream.chat.android.client.models.Message;
+import io.getstream.chat.android.client.models.User;
+
+/**
+ * Turns the text of a message into the text that is rendered, in a single pass.
+ * <p>
+ * Leading and trailing line breaks are dropped, line breaks become markdown line breaks and the
+ * mentions of the mentioned users are found with a {@link MentionMatcher}. The mentions are either
+ * wrapped in markdown bold, or left as they are and styled with a {@link MentionSpan} after the
+ * markdown was rendered. Matchers are shared by the messages that mention the same users and the
+ * transformed text is cached per message.
+ */
+public class MentionTransformer {
+
+    /**
+     * the style of a mention in rendered text
+     */
+    public static class MentionSpan extends StyleSpan {
+        @NonNull
+        public final String userId;
+
+        public MentionSpan(@NonNull String userId) {
+            super(Typeface.BOLD);
+            this.userId = userId;
+        }
+    }
+
+    private static final LruCache<String, MentionMatcher> matchers = new LruCache<>(50);
+    private static final LruCache<String, String> texts = new LruCache<>(500);
+
+    private MentionTransformer() {
+    }
+
+    /**
+     * @return the text with the mentions in markdown bold, the placeholder of deleted messages in
+     * markdown italic
+     */
+    @NonNull
+    public static String toMarkdown(@NonNull Message message) {
+        return transform(message, true);
+    }
+
+    /**
+     * @return the text with the mentions left as they are, to be styled with
+     * {@link #applyMentions(Spanned, Message)} after rendering
+     */
+    @NonNull
+    public static String toText(@NonNull Message message) {
+        return transform(message, false);
+    }
+
+    /**
+     * styles the mentions of the message in its rendered text
+     */
+    @NonNull
+    public static Spanned applyMentions(@NonNull Spanned rendered, @NonNull Message message) {
+        List<User> users = mentionedUsers(message);
+        if (users.isEmpty() || message.getDeletedAt() != null) return rendered;
+
+        List<int[]> mentions = matcher(users).find(rendered, 0, rendered.length());
+        if (mentions.isEmpty()) return rendered;
+
+        Spannable spannable = rendered instanceof Spannable ? (Spannable) rendered : new SpannableString(rendered);
+        for (int[] mention : mentions) {
+            String userId = userIdOf(users, rendered.subSequence(mention[0] + 1, mention[1]).toString());
+            spannable.setSpan(new MentionSpan(userId), mention[0], mention[1], Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        }
+        return spannable;
+    }
+
+    private static String transform(Message message, boolean boldMarkdown) {
+        if (message.getDeletedAt() != null) {
+            return "_" + Chat.getInstance().getStrings().get(R.string.stream_delete_message) + "_";
+        }
+
+        String text = message.getText();
+        List<User> users = mentionedUsers(message);
+        String key = key(message, users, boldMarkdown);
+        String cached = texts.get(key);
+        if (cached != null) return cached;
+
+        int start = 0;
+        int end = text.length();
+        while (start < end && isLineBreak(text.charAt(start))) start++;
+        while (end > start && isLineBreak(text.charAt(end - 1))) end--;
+
+        List<int[]> mentions = boldMarkdown && !users.isEmpty()
+                ? matcher(users).find(text, start, end)
+                : Collections.emptyList();
+
+        StringBuilder result = new StringBuilder(end - start + mentions.size() * 5);
+        int next = 0;
+        for (int i = start; i < end; i++) {
+            if (next < mentions.size() && mentions.get(next)[0] == i) {
+                int[] mention = mentions.get(next++);
+                // bold markdown has to be separated from a preceding word
+                if (i > start && text.charAt(i - 1) != ' ') result.append(' ');
+                result.append("**").append(text, mention[0], mention[1]).append("**");
+                i = mention[1] - 1;
+                continue;
+            }
+            char c = text.charAt(i);
+            if (c == '\n') {
+                // markdown for newline
+                result.append("  \n");
+            } else {
+                result.append(c);
+            }
+        }
+
+        String transformed = result.toString();
+        texts.put(key, transformed);
+        return transformed;
+    }
+
+    private static boolean isLineBreak(char c) {
+        return c == '\n' || c == '\r';
+    }
+
+    private static List<User> mentionedUsers(Message message) {
+        List<User> users = message.getMentionedUsers();
+        return users == null ? Collections.emptyList() : users;
+    }
+
+    private static MentionMatcher matcher(List<User> users) {
+        List<String> names = new ArrayList<>(users.size());
+        for (User user : users) names.add(nameOf(user));
+        String key = names.toString();
+
+        MentionMatcher matcher = matchers.get(key);
+        if (matcher == null) {
+            matcher = new MentionMatcher(names);
+            matchers.put(key, matcher);
+        }
+        return matcher;
+    }
+
+    private static String userIdOf(List<User> users, String name) {
+        for (User user : users) if (nameOf(user).equals(name)) return user.getId();
+        return "";
+    }
+
+    private static String nameOf(User user) {
+        return user.getExtraValue("name", "");
+    }
+
+    private static String key(Message message, List<User> users, boolean boldMarkdown) {
+        long updatedAt = message.getUpdatedAt() == null ? 0 : message.getUpdatedAt().getTime();
+        StringBuilder key = new StringBuilder()
+                .append(message.getId()).append('|')
+                .append(updatedAt).append('|')
+                .append(message.getText().hashCode()).append('|')
+                .append(boldMarkdown);
+        for (User user : users) key.append('|').append(user.getId());
+        return key.toString();
+    }
+}
@@ -2,15 +2,13 @@ package com.getstream.sdk.chat.utils;
 
 import android.app.Activity;
 import android.content.Context;
-import android.media.MediaMetadataRetriever;
-import android.net.Uri;
-import android.os.AsyncTask;
 import android.os.Build;
 import android.os.Environment;
 import android.text.TextUtils;
 import android.view.View;
 import android.widget.AdapterView;
 
+import com.getstream.sdk.chat.Chat;
 import com.getstream.sdk.chat.R;
 import com.getstream.sdk.chat.adapter.AttachmentListAdapter;
 import com.getstream.sdk.chat.adapter.CommandMentionListItemAdapter;
@@ -64,6 +62,11 @@ public class MessageInputController {
 
     private List<AttachmentMetaData> attachmentData;
     private UploadManager uploadManager;
+    @Nullable
+    private UploadManager.BatchListener batchListener;
+    private VideoPipeline videoPipeline;
+    private MediaStoreLoader mediaStoreLoader;
+    private FileScanner fileScanner;
     // region Attachment
 
     public MessageInputController(@NonNull Context context,
@@ -78,6 +81,67 @@ public class MessageInputController {
         this.style = style;
         this.attachmentListener = attachmentListener;
         uploadManager = new UploadManager(channel);
+        uploadManager.setImagePreprocessor(new ImagePreprocessor.Builder(context).build());
+        uploadManager.setUploadCache(new UploadCache(context, Chat.getInstance().urlSigner().getUrlLifetimeMs()));
+        uploadManager.setBatchListener(this::onBatchProgress);
+        videoPipeline = new VideoPipeline(context);
+        mediaStoreLoader = new MediaStoreLoader(context);
+        fileScanner = new FileScanner();
+    }
+
+    /**
+     * @param videoPipeline prepares the captured videos, use it to transcode them before upload
+     */
+    public void setVideoPipeline(@NonNull VideoPipeline videoPipeline) {
+        this.videoPipeline = videoPipeline;
+    }
+
+    /**
+     * @param parallelism number of attachments uploaded at the same time
+     */
+    public void setUploadParallelism(int parallelism) {
+        uploadManager.setParallelism(parallelism);
+    }
+
+    /**
+     * @param order order of the attachments waiting for an upload slot
+     */
+    public void setUploadOrder(@UploadManager.Order int order) {
+        uploadManager.setOrder(order);
+    }
+
+    /**
+     * @param batchListener receives the progress of all the attachments being uploaded
+     */
+    public void setUploadBatchListener(@Nullable UploadManager.BatchListener batchListener) {
+        this.batchListener = batchListener;
+    }
+
+    /**
+     * @param imagePreprocessor shrinks images before they are uploaded, null uploads the originals
+     */
+    public void setImagePreprocessor(@Nullable ImagePreprocessor imagePreprocessor) {
+        uploadManager.setImagePreprocessor(imagePreprocessor);
+    }
+
+    /**
+     * @param uploadCache reuses the urls of content that was already uploaded to the channel, null
+     *                    uploads every file
+     */
+    public void setUploadCache(@Nullable UploadCache uploadCache) {
+        uploadManager.setUploadCache(uploadCache);
+    }
+
+    /**
+     * @param metrics receives the timings of the uploads, share one instance to aggregate several inputs
+     */
+    public void setUploadMetrics(@NonNull UploadMetrics metrics) {
+        uploadManager.setMetrics(metrics);
+    }
+
+    @NonNull
+    public UploadMetrics getUploadMetrics() {
+        return uploadManager.getMetrics();
     }
 
     public List<AttachmentMetaData> getSelectedAttachments() {
@@ -166,38 +230,81 @@ public class MessageInputController {
 
     private void configSelectAttachView(boolean isMedia) {
         binding.setIsAttachFile(!isMedia);
-        getAttachmentsFromLocal(isMedia);
 
-        ((Activity) context).runOnUiThread(() -> {
-            if (selectedAttachments.isEmpty()) {
-                setAttachmentAdapters(isMedia);
+        if (!selectedAttachments.isEmpty()) {
+            attachmentData = new ArrayList<>();
+            showHideComposerAttachmentGalleryView(true, isMedia);
+            setSelectedAttachmentAdapter(false, isMedia);
+            return;
+        }
+
+        if (isMedia) {
+            loadMediaAttachments();
+        } else {
+            loadFileAttachments();
+        }
+    }
+
+    private void loadMediaAttachments() {
+        attachmentData = new ArrayList<>();
+        setAttachmentAdapters(true);
+
+        mediaStoreLoader.load(new MediaStoreLoader.Listener() {
+            @Override
+            public void onStart(int total) {
+                mediaAttachmentAdapter.setExpectedCount(total);
+                if (total > 0) binding.progressBarFileLoader.setVisibility(View.GONE);
+            }
+
+            @Override
+            public void onPage(@NonNull List<AttachmentMetaData> page) {
+                int start = attachmentData.size();
+                attachmentData.addAll(page);
+                mediaAttachmentAdapter.notifyItemsLoaded(start, page.size());
+            }
+
+            @Override
+            public void onComplete(int loaded) {
+                mediaAttachmentAdapter.setExpectedCount(loaded);
+                binding.progressBarFileLoader.setVisibility(View.GONE);
                 if (attachmentData.isEmpty()) {
                     Utils.showMessage(context, context.getResources().getString(R.string.stream_no_media_error));
                     onClickCloseBackGroundView();
                 }
-                binding.progressBarFileLoader.setVisibility(View.GONE);
-            } else {
-                showHideComposerAttachmentGalleryView(true, isMedia);
-                setSelectedAttachmentAdapter(false, isMedia);
             }
         });
     }
 
-    private void getAttachmentsFromLocal(boolean isMedia) {
-        if (isMedia) {
-            attachmentData = Utils.getMediaAttachments(context);
-            return;
-        }
+    private void loadFileAttachments() {
+        attachmentData = new ArrayList<>();
+        setAttachmentAdapters(false);
 
-        Utils.attachments = new ArrayList<>();
-        attachmentData = Utils.getFileAttachments(Environment.getExternalStorageDirectory());
+        fileScanner.scan(Environment.getExternalStorageDirectory(), new FileScanner.Listener() {
+            @Override
+            public void onFound(@NonNull List<AttachmentMetaData> attachments) {
+                attachmentData.addAll(attachments);
+                fileAttachmentAdapter.notifyDataSetChanged();
+                binding.progressBarFileLoader.setVisibility(View.GONE);
+            }
+
+            @Override
+            public void onComplete(int total) {
+                binding.progressBarFileLoader.setVisibility(View.GONE);
+                if (attachmentData.isEmpty()) {
+                    Utils.showMessage(context, context.getResources().getString(R.string.stream_no_media_error));
+                    onClickCloseBackGroundView();
+                }
+            }
+        });
     }
 
     private void setAttachmentAdapters(boolean isMedia) {
         if (isMedia) {
-            mediaAttachmentAdapter = new MediaAttachmentAdapter(context, attachmentData, position ->
-                    uploadOrCancelAttachment(attachmentData.get(position), isMedia)
-            );
+            mediaAttachmentAdapter = new MediaAttachmentAdapter(context, attachmentData, position -> {
+                // placeholders of items that are still loading can't be selected
+                if (position >= 0 && position < attachmentData.size())
+                    uploadOrCancelAttachment(attachmentData.get(position), isMedia);
+            });
             binding.rvMedia.setAdapter(mediaAttachmentAdapter);
         } else {
             fileAttachmentAdapter = new AttachmentListAdapter(context, attachmentData, true, true);
@@ -281,6 +388,15 @@ public class MessageInputController {
         });
     }
 
+    private void onBatchProgress(int progress, int completed, int total) {
+        binding.getRoot().post(() -> {
+            binding.progressBarUploadBatch.setVisibility(completed < total ? View.VISIBLE : View.GONE);
+            binding.progressBarUploadBatch.setProgress(progress);
+            UploadManager.BatchListener listener = batchListener;
+            if (listener != null) listener.onBatchProgress(progress, completed, total);
+        });
+    }
+
     private void uploadedFileProgress(AttachmentMetaData attachment) {
         if (attachmentListener != null)
             attachmentListener.onAddAttachment(attachment);
@@ -322,7 +438,7 @@ public class MessageInputController {
             setSelectedAttachments(editAttachments);
 
 
-        AsyncTask.execute(() -> configSelectAttachView(isMedia));
+        configSelectAttachView(isMedia);
         if (selectedAttachments.isEmpty()) {
             binding.progressBarFileLoader.setVisibility(View.VISIBLE);
             onClickOpenBackGroundView(isMedia ? MessageInputType.UPLOAD_MEDIA : MessageInputType.UPLOAD_FILE);
@@ -382,6 +498,8 @@ public class MessageInputController {
     }
 
     private void initAdapter() {
+        mediaStoreLoader.cancel();
+        fileScanner.cancel();
         selectedAttachments.clear();
         uploadManager.resetQueue();
 
@@ -405,16 +523,18 @@ public class MessageInputController {
         attachment.file = file;
         if (isImage) {
             attachment.type = ModelType.attach_image;
-        } else {
-            MediaMetadataRetriever retriever = new MediaMetadataRetriever();
-            retriever.setDataSource(context, Uri.fromFile(file));
-            String time = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION);
-            long videolengh = Long.parseLong(time);
-            attachment.videoLength = (int) (videolengh / 1000);
-            Utils.configFileAttachment(attachment, file, ModelType.attach_file, ModelType.attach_mime_mp4);
-            retriever.release();
+            uploadAttachment(attachment, false, true);
+            return;
         }
-        uploadAttachment(attachment, false, true);
+
+        videoPipeline.process(file, result -> binding.getRoot().post(() -> {
+            if (result.video != file) attachment.source = file;
+            attachment.file = result.video;
+            attachment.thumbnail = result.thumbnail;
+            attachment.videoLength = (int) (result.durationMs / 1000);
+            Utils.configFileAttachment(attachment, result.video, ModelType.attach_file, ModelType.attach_mime_mp4);
+            uploadAttachment(attachment, false, true);
+        }));
     }
     // endregion
 
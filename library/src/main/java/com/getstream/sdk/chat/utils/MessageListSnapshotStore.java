@@ -0,0 +1,318 @@
+package com.getstream.sdk.chat.utils;
+
+import android.content.Context;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import io.getstream.chat.android.client.logger.ChatLogger;
+import io.getstream.chat.android.client.logger.TaggedLogger;
+import io.getstream.chat.android.client.models.Attachment;
+import io.getstream.chat.android.client.models.Message;
+import io.getstream.chat.android.client.models.User;
+import okio.ByteString;
+
+/**
+ * Binary snapshot of the last messages rendered for recently opened channels.
+ * <p>
+ * A snapshot is written when a channel screen goes away and memory-mapped the next time the
+ * channel is opened, so the message list can be painted before the channel query returns.
+ * Only what the message list renders is stored, one file per channel; the oldest files are
+ * removed once more than {@code maxChannels} snapshots exist. Snapshots are kept per user, those of
+ * other users are deleted when a user connects and all of them when the user disconnects.
+ */
+public class MessageListSnapshotStore {
+
+    private static final int MAGIC = 0x53544d53; // STMS
+    private static final int VERSION = 1;
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String DIR_NAME = "stream_snapshots";
+
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor();
+
+    private final TaggedLogger logger = ChatLogger.Companion.get("MessageListSnapshotStore");
+
+    // null without a user, nothing is stored then
+    @Nullable
+    private final File dir;
+    private final int maxMessages;
+    private final int maxChannels;
+
+    /**
+     * @param userId the user the snapshots belong to
+     */
+    public MessageListSnapshotStore(@NonNull Context context, @Nullable String userId) {
+        this(context, userId, 30, 10);
+    }
+
+    /**
+     * @param userId      the user the snapshots belong to
+     * @param maxMessages number of messages kept per channel
+     * @param maxChannels number of channels kept
+     */
+    public MessageListSnapshotStore(@NonNull Context context, @Nullable String userId, int maxMessages, int maxChannels) {
+        this.dir = userId == null || userId.isEmpty() ? null : new File(rootDir(context), userDirName(userId));
+        this.maxMessages = maxMessages;
+        this.maxChannels = maxChannels;
+    }
+
+    /**
+     * deletes the snapshots of every user but the given one on a background thread
+     */
+    public static void deleteOtherUsers(@NonNull Context context, @NonNull String userId) {
+        File root = rootDir(context);
+        String keep = userDirName(userId);
+        writer.execute(() -> {
+            File[] dirs = root.listFiles();
+            if (dirs == null) return;
+            for (File userDir : dirs) {
+                if (!userDir.getName().equals(keep)) deleteRecursively(userDir);
+            }
+        });
+    }
+
+    /**
+     * deletes the snapshots of all the users on a background thread
+     */
+    public static void deleteAll(@NonNull Context context) {
+        File root = rootDir(context);
+        writer.execute(() -> deleteRecursively(root));
+    }
+
+    /**
+     * encodes the newest messages right away and writes them on a background thread
+     */
+    public void write(@NonNull String cid, @Nullable List<Message> messages) {
+        if (dir == null || messages == null || messages.isEmpty()) return;
+
+        byte[] data;
+        try {
+            data = encode(messages.subList(Math.max(0, messages.size() - maxMessages), messages.size()));
+        } catch (IOException e) {
+            logger.logE(e);
+            return;
+        }
+
+        File file = fileFor(cid);
+        writer.execute(() -> {
+            if (!dir.exists() && !dir.mkdirs()) return;
+            File tmp = new File(dir, file.getName() + ".tmp");
+            try (FileOutputStream out = new FileOutputStream(tmp)) {
+                out.write(data);
+            } catch (IOException e) {
+                logger.logE(e);
+                return;
+            }
+            if (!tmp.renameTo(file)) logger.logE("failed to store snapshot for " + cid);
+            evictOldest();
+        });
+    }
+
+    /**
+     * @param currentUser reused for the messages of the current user, so they render as mine
+     * @return the stored messages, oldest first, or null if there is no usable snapshot
+     */
+    @Nullable
+    public List<Message> read(@NonNull String cid, @Nullable User currentUser) {
+        if (dir == null) return null;
+        File file = fileFor(cid);
+        if (!file.exists()) return null;
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return decode(buffer, currentUser);
+        } catch (Exception e) {
+            // a corrupted or outdated snapshot is simply dropped
+            logger.logE(e);
+            delete(cid);
+            return null;
+        }
+    }
+
+    public void delete(@NonNull String cid) {
+        if (dir == null) return;
+        File file = fileFor(cid);
+        writer.execute(file::delete);
+    }
+
+    private File fileFor(String cid) {
+        return new File(dir, fileName(cid) + ".bin");
+    }
+
+    private static File rootDir(Context context) {
+        return new File(context.getCacheDir(), DIR_NAME);
+    }
+
+    // sanitized ids of two users could be the same
+    private static String userDirName(String userId) {
+        return ByteString.encodeUtf8(userId).md5().hex();
+    }
+
+    private static String fileName(String id) {
+        return id.replaceAll("[^A-Za-z0-9_-]", "_");
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) deleteRecursively(child);
+        }
+        file.delete();
+    }
+
+    private void evictOldest() {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".bin"));
+        if (files == null || files.length <= maxChannels) return;
+        Arrays.sort(files, (a, b) -> Long.compare(b.lastModified(), a.lastModified()));
+        for (int i = maxChannels; i < files.length; i++) files[i].delete();
+    }
+
+    // region Encoding
+
+    static byte[] encode(List<Message> messages) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(messages.size() * 256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(messages.size());
+        for (Message message : messages) {
+            writeString(out, message.getId());
+            writeString(out, message.getCid());
+            writeString(out, message.getType());
+            writeString(out, message.getText());
+            writeString(out, message.getParentId());
+            out.writeInt(message.getReplyCount());
+            writeDate(out, message.getCreatedAt());
+            writeDate(out, message.getUpdatedAt());
+            writeDate(out, message.getDeletedAt());
+
+            User user = message.getUser();
+            writeString(out, user.getId());
+            writeString(out, user.getExtraValue("name", ""));
+            writeString(out, user.getExtraValue("image", ""));
+
+            List<Attachment> attachments = message.getAttachments();
+            out.writeInt(attachments.size());
+            for (Attachment attachment : attachments) {
+                writeString(out, attachment.getType());
+                writeString(out, attachment.getTitle());
+                writeString(out, attachment.getMimeType());
+                writeString(out, attachment.getImageUrl());
+                writeString(out, attachment.getThumbUrl());
+                writeString(out, attachment.getAssetUrl());
+                out.writeInt(attachment.getFileSize());
+            }
+
+            Map<String, Integer> reactionCounts = message.getReactionCounts();
+            out.writeInt(reactionCounts.size());
+            for (Map.Entry<String, Integer> entry : reactionCounts.entrySet()) {
+                writeString(out, entry.getKey());
+                out.writeInt(entry.getValue());
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    static List<Message> decode(ByteBuffer in, @Nullable User currentUser) {
+        if (in.getInt() != MAGIC || in.getInt() != VERSION) return null;
+
+        int count = in.getInt();
+        List<Message> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Message message = new Message();
+            message.setId(readString(in));
+            message.setCid(readString(in));
+            message.setType(readString(in));
+            message.setText(readString(in));
+            message.setParentId(readString(in));
+            message.setReplyCount(in.getInt());
+            message.setCreatedAt(readDate(in));
+            message.setUpdatedAt(readDate(in));
+            message.setDeletedAt(readDate(in));
+
+            String userId = readString(in);
+            String name = readString(in);
+            String image = readString(in);
+            if (currentUser != null && currentUser.getId().equals(userId)) {
+                message.user = currentUser;
+            } else {
+                User user = new User(userId);
+                user.getExtraData().put("name", name);
+                user.getExtraData().put("image", image);
+                message.user = user;
+            }
+
+            int attachments = in.getInt();
+            for (int j = 0; j < attachments; j++) {
+                Attachment attachment = new Attachment();
+                attachment.setType(readString(in));
+                attachment.setTitle(readString(in));
+                attachment.setMimeType(readString(in));
+                attachment.setImageUrl(readString(in));
+                attachment.setThumbUrl(readString(in));
+                attachment.setAssetUrl(readString(in));
+                attachment.setFileSize(in.getInt());
+                message.getAttachments().add(attachment);
+            }
+
+            int reactions = in.getInt();
+            for (int j = 0; j < reactions; j++) {
+                String type = readString(in);
+                message.getReactionCounts().put(type, in.getInt());
+            }
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    private static void writeString(DataOutputStream out, @Nullable String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @Nullable
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static void writeDate(DataOutputStream out, @Nullable Date date) throws IOException {
+        out.writeLong(date == null ? NO_DATE : date.getTime());
+    }
+
+    @Nullable
+    private static Date readDate(ByteBuffer in) {
+        long time = in.getLong();
+        return time == NO_DATE ? null : new Date(time);
+    }
+
+    // endregion
+}
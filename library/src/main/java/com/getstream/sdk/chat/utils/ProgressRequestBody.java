@@ -2,34 +2,60 @@ package com.getstream.sdk.chat.utils;
 
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 
 import com.getstream.sdk.chat.rest.interfaces.UploadFileCallback;
 
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 
 import okhttp3.MediaType;
 import okhttp3.RequestBody;
 import okio.BufferedSink;
-
+import okio.Okio;
+import okio.Source;
+
+/**
+ * Streams a file straight from an Okio {@link Source} into the request sink.
+ * <p>
+ * Bytes move segment by segment between the file source and the sink buffer, no intermediate
+ * array is used. Progress is posted to the main thread only when the percentage changed by at
+ * least {@code minPercentStep}, or changed at all after {@code minIntervalMs}; 100 is always
+ * posted once the file was written.
+ */
 public class ProgressRequestBody extends RequestBody {
 
+    private static final long READ_SIZE = 64 * 1024;
+    private static final int DEFAULT_MIN_PERCENT_STEP = 1;
+    private static final long DEFAULT_MIN_INTERVAL_MS = 100;
+
+    private static final Handler handler = new Handler(Looper.getMainLooper());
+
     private File mFile;
     private UploadFileCallback mListener;
     private String content_type;
-
-    private static final int DEFAULT_BUFFER_SIZE = 2048;
+    private final int minPercentStep;
+    private final long minIntervalMs;
 
     public ProgressRequestBody(final File file, String content_type, final UploadFileCallback listener) {
+        this(file, content_type, listener, DEFAULT_MIN_PERCENT_STEP, DEFAULT_MIN_INTERVAL_MS);
+    }
+
+    /**
+     * @param minPercentStep percent the progress has to grow before it is posted
+     * @param minIntervalMs  time after which any change is posted
+     */
+    public ProgressRequestBody(final File file, String content_type, final UploadFileCallback listener,
+                               int minPercentStep, long minIntervalMs) {
         this.content_type = content_type;
         mFile = file;
         mListener = listener;
+        this.minPercentStep = minPercentStep;
+        this.minIntervalMs = minIntervalMs;
     }
 
-
     @Nullable
     @Override
     public MediaType contentType() {
@@ -44,38 +70,32 @@ public class ProgressRequestBody extends RequestBody {
     @Override
     public void writeTo(BufferedSink sink) throws IOException {
         long fileLength = mFile.length();
-        byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
-        FileInputStream in = new FileInputStream(mFile);
         long uploaded = 0;
+        int lastPosted = -1;
+        long lastPostedAt = 0;
 
-        try {
-            int read;
-            Handler handler = new Handler(Looper.getMainLooper());
-            while ((read = in.read(buffer)) != -1) {
-
-                // update progress on UI thread
-                handler.post(new ProgressUpdater(uploaded, fileLength));
-
+        try (Source source = Okio.source(mFile)) {
+            long read;
+            while ((read = source.read(sink.getBuffer(), READ_SIZE)) != -1) {
+                sink.emitCompleteSegments();
                 uploaded += read;
-                sink.write(buffer, 0, read);
+
+                int progress = fileLength == 0 ? 100 : (int) (100 * uploaded / fileLength);
+                long now = SystemClock.elapsedRealtime();
+                if (progress != lastPosted
+                        && (progress - lastPosted >= minPercentStep || now - lastPostedAt >= minIntervalMs)) {
+                    post(progress);
+                    lastPosted = progress;
+                    lastPostedAt = now;
+                }
             }
-        } finally {
-            in.close();
         }
-    }
-
-    private class ProgressUpdater implements Runnable {
-        private long mUploaded;
-        private long mTotal;
 
-        public ProgressUpdater(long uploaded, long total) {
-            mUploaded = uploaded;
-            mTotal = total;
-        }
+        if (lastPosted != 100) post(100);
+    }
 
-        @Override
-        public void run() {
-            mListener.onProgress((int) (100 * mUploaded / mTotal));
-        }
+    @SuppressWarnings("unchecked")
+    private void post(int progress) {
+        handler.post(() -> mListener.onProgress(progress));
     }
 }
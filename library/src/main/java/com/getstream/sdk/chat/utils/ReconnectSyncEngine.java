@@ -0,0 +1,185 @@
+package com.getstream.sdk.chat.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import io.getstream.chat.android.client.ChatClient;
+import io.getstream.chat.android.client.api.models.ChannelQueryRequest;
+import io.getstream.chat.android.client.api.models.ChannelWatchRequest;
+import io.getstream.chat.android.client.api.models.Pagination;
+import io.getstream.chat.android.client.events.ConnectedEvent;
+import io.getstream.chat.android.client.logger.ChatLogger;
+import io.getstream.chat.android.client.logger.TaggedLogger;
+import io.getstream.chat.android.client.models.Channel;
+import io.getstream.chat.android.client.models.Message;
+import io.getstream.chat.android.client.utils.Result;
+import io.getstream.chat.android.client.utils.observable.Subscription;
+import kotlin.Unit;
+
+/**
+ * Catches up the open channels after the socket reconnects.
+ * <p>
+ * The engine records when the last event of every channel was received. On reconnect each
+ * registered channel queries only the messages newer than the last one it has (GREATER_THAN
+ * pagination); channels run in parallel, at most {@code maxConcurrent} at a time, most recently
+ * active first. Everything that was missed is delivered to the channel in one callback.
+ */
+public class ReconnectSyncEngine {
+
+    public interface SyncTarget {
+        /**
+         * @return the id of the newest message shown, null if nothing is loaded yet
+         */
+        @Nullable
+        String getLastMessageId();
+
+        /**
+         * called on a background thread with all the messages that were missed, oldest first
+         *
+         * @param channel  the channel state returned by the last query
+         * @param missed   the messages newer than {@link #getLastMessageId()}
+         * @param complete false when too many messages were missed, in that case only the newest
+         *                 page is delivered and there is a gap before it
+         */
+        void onSynced(@NonNull Channel channel, @NonNull List<Message> missed, boolean complete);
+    }
+
+    private static final int DEFAULT_MAX_CONCURRENT = 3;
+    private static final int PAGE_SIZE = Constant.DEFAULT_LIMIT;
+    private static final int MAX_PAGES = 4;
+
+    private final TaggedLogger logger = ChatLogger.Companion.get("ReconnectSyncEngine");
+
+    private final ChatClient client;
+    private final ExecutorService executor;
+    private final Map<String, SyncTarget> targets = new ConcurrentHashMap<>();
+    private final Map<String, Date> lastEventAt = new ConcurrentHashMap<>();
+
+    private Subscription subscription;
+    private boolean connectedBefore;
+
+    public ReconnectSyncEngine(@NonNull ChatClient client) {
+        this(client, DEFAULT_MAX_CONCURRENT);
+    }
+
+    /**
+     * @param maxConcurrent number of channels queried at the same time
+     */
+    public ReconnectSyncEngine(@NonNull ChatClient client, int maxConcurrent) {
+        this.client = client;
+        this.executor = Executors.newFixedThreadPool(maxConcurrent);
+    }
+
+    public synchronized void start() {
+        if (subscription != null) return;
+        subscription = client.events().subscribe(event -> {
+            if (event instanceof ConnectedEvent) {
+                onConnected();
+            } else if (event.getCid() != null) {
+                lastEventAt.put(event.getCid(), event.getReceivedAt());
+            }
+            return Unit.INSTANCE;
+        });
+    }
+
+    public synchronized void stop() {
+        if (subscription != null) {
+            subscription.unsubscribe();
+            subscription = null;
+        }
+    }
+
+    public void register(@NonNull String cid, @NonNull SyncTarget target) {
+        targets.put(cid, target);
+    }
+
+    public void unregister(@NonNull String cid, @NonNull SyncTarget target) {
+        targets.remove(cid, target);
+    }
+
+    /**
+     * @return when the last event for the channel was received, null if none was received
+     */
+    @Nullable
+    public Date getLastEventAt(@NonNull String cid) {
+        return lastEventAt.get(cid);
+    }
+
+    private synchronized void onConnected() {
+        if (!connectedBefore) {
+            connectedBefore = true;
+            return;
+        }
+
+        List<String> cids = new ArrayList<>(targets.keySet());
+        Collections.sort(cids, (a, b) -> {
+            Date dateA = lastEventAt.get(a);
+            Date dateB = lastEventAt.get(b);
+            if (dateA == null) return dateB == null ? 0 : 1;
+            if (dateB == null) return -1;
+            return dateB.compareTo(dateA);
+        });
+
+        logger.logI("reconnected, syncing " + cids.size() + " channels");
+        for (String cid : cids) {
+            SyncTarget target = targets.get(cid);
+            if (target != null) executor.execute(() -> sync(cid, target));
+        }
+    }
+
+    protected void sync(String cid, SyncTarget target) {
+        String lastMessageId = target.getLastMessageId();
+        if (lastMessageId == null) return;
+
+        String type = StringUtility.getChannelTypeFromCid(cid);
+        String id = StringUtility.getChannelIdFromCid(cid);
+
+        List<Message> missed = new ArrayList<>();
+        Channel channel = null;
+        String cursor = lastMessageId;
+        boolean complete = false;
+
+        for (int page = 0; page < MAX_PAGES; page++) {
+            ChannelQueryRequest request = new ChannelQueryRequest()
+                    .withMessages(Pagination.GREATER_THAN, cursor, PAGE_SIZE);
+            Result<Channel> result = client.queryChannel(type, id, request).execute();
+
+            if (!result.isSuccess()) {
+                logger.logE("sync failed for " + cid + ": " + result.error().getMessage());
+                return;
+            }
+
+            channel = result.data();
+            List<Message> messages = channel.getMessages();
+            missed.addAll(messages);
+
+            if (messages.size() < PAGE_SIZE) {
+                complete = true;
+                break;
+            }
+            cursor = messages.get(messages.size() - 1).getId();
+        }
+
+        if (!complete) {
+            // too far behind, jump to the newest page instead of replaying the whole gap
+            Result<Channel> result = client.queryChannel(type, id, new ChannelWatchRequest().withMessages(PAGE_SIZE)).execute();
+            if (!result.isSuccess()) {
+                logger.logE("sync failed for " + cid + ": " + result.error().getMessage());
+                return;
+            }
+            channel = result.data();
+            missed = new ArrayList<>(channel.getMessages());
+        }
+
+        logger.logI("synced " + cid + ", missed messages: " + missed.size());
+        target.onSynced(channel, missed, complete);
+    }
+}
@@ -0,0 +1,26 @@
+package com.getstream.sdk.chat.utils;
+
+import android.net.Uri;
+
+import com.facebook.imagepipeline.cache.DefaultCacheKeyFactory;
+
+/**
+ * Fresco cache keys that leave out the query parameters of url signing, see
+ * {@link ImageCacheKeys}. The image is still fetched from the signed url.
+ */
+public class SignedCacheKeyFactory extends DefaultCacheKeyFactory {
+
+    private static SignedCacheKeyFactory instance;
+
+    public static synchronized SignedCacheKeyFactory getInstance() {
+        if (instance == null) instance = new SignedCacheKeyFactory();
+        return instance;
+    }
+
+    @Override
+    protected Uri getCacheKeySourceUri(Uri sourceUri) {
+        String scheme = sourceUri.getScheme();
+        if (!"http".equals(scheme) && !"https".equals(scheme)) return sourceUri;
+        return Uri.parse(ImageCacheKeys.forUrl(sourceUri.toString()));
+    }
+}
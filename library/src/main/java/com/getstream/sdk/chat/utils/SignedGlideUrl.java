@@ -0,0 +1,24 @@
+package com.getstream.sdk.chat.utils;
+
+import com.bumptech.glide.load.model.GlideUrl;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A url for Glide whose cache key leaves out the query parameters of url signing, see
+ * {@link ImageCacheKeys}. The image is still fetched from the signed url.
+ */
+public class SignedGlideUrl extends GlideUrl {
+
+    private final String cacheKey;
+
+    public SignedGlideUrl(@NonNull String signedUrl) {
+        super(signedUrl);
+        this.cacheKey = ImageCacheKeys.forUrl(signedUrl);
+    }
+
+    @Override
+    public String getCacheKey() {
+        return cacheKey;
+    }
+}
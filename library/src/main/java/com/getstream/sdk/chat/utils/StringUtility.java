@@ -3,15 +3,11 @@ package com.getstream.sdk.chat.utils;
 import android.annotation.SuppressLint;
 import android.text.TextUtils;
 
-import com.getstream.sdk.chat.Chat;
-import com.getstream.sdk.chat.R;
-
 import java.text.DecimalFormat;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import io.getstream.chat.android.client.models.Message;
-import io.getstream.chat.android.client.models.User;
 
 public class StringUtility {
 
@@ -43,27 +39,12 @@ public class StringUtility {
                 "[\u231A\u231B\u2328\u23CF\u23E9-\u23F3\u23F8-\u23FA]\uFE0F?)+");
     }
 
+    /**
+     * @return the markdown of the message text with the mentions in bold, see {@link MentionTransformer}
+     */
     public static String getDeletedOrMentionedText(Message message) {
         if (message == null) return null;
-        // Trimming New Lines
-        String text = message.getText().replaceAll("^[\r\n]+|[\r\n]+$", "");
-
-        if (message.getDeletedAt() != null) {
-            text = "_" + Chat.getInstance().getStrings().get(R.string.stream_delete_message) + "_";
-            return text;
-        }
-        if (message.getMentionedUsers() != null && !message.getMentionedUsers().isEmpty()) {
-            for (User mentionedUser : message.getMentionedUsers()) {
-                String userName = mentionedUser.getExtraValue("name", "");
-                int index = text.indexOf(userName);
-                if (index > 1 && text.charAt(index - 2) != ' ')
-                    text = text.replace("@" + userName, " **" + "@" + userName + "**");
-                else
-                    text = text.replace("@" + userName, "**" + "@" + userName + "**");
-            }
-        }
-        // Markdown for newline
-        return text.replaceAll("\n", "  \n");
+        return MentionTransformer.toMarkdown(message);
     }
 
     @SuppressLint("DefaultLocale")
@@ -0,0 +1,102 @@
+package com.getstream.sdk.chat.utils;
+
+import android.text.Spanned;
+import android.util.LruCache;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.text.PrecomputedTextCompat;
+
+/**
+ * Measures message text on a background thread before it is laid out.
+ * <p>
+ * A {@link PrecomputedTextCompat} holds the glyph measurements of a text for given text metrics
+ * (paint, break strategy, hyphenation, direction), setting it on a TextView with the same metrics
+ * leaves only line breaking to the layout pass. The metrics of the own and the other messages are
+ * taken from the bound views, so the prefetched text matches the {@code MessageListViewStyle}. The
+ * results are kept in a LRU bounded by the number of texts.
+ */
+public class TextLayoutCache {
+
+    interface TextSource {
+        /**
+         * called on the layout thread
+         *
+         * @return the text to measure, null if there is none
+         */
+        @Nullable
+        Spanned get();
+    }
+
+    private static final int DEFAULT_MAX_ENTRIES = 100;
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private final LruCache<String, PrecomputedTextCompat> cache;
+    private final Set<String> measuring = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    @Nullable
+    private volatile PrecomputedTextCompat.Params paramsMine;
+    @Nullable
+    private volatile PrecomputedTextCompat.Params paramsTheirs;
+
+    public TextLayoutCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param maxEntries number of measured texts kept in memory
+     */
+    public TextLayoutCache(int maxEntries) {
+        cache = new LruCache<>(maxEntries);
+    }
+
+    /**
+     * @param params the text metrics of a bound message view, used for the next prefetches
+     */
+    public void setParams(boolean mine, @NonNull PrecomputedTextCompat.Params params) {
+        if (mine) {
+            paramsMine = params;
+        } else {
+            paramsTheirs = params;
+        }
+    }
+
+    /**
+     * @return the measured text, null if it was not measured or with other metrics
+     */
+    @Nullable
+    public PrecomputedTextCompat get(@NonNull String key, @NonNull PrecomputedTextCompat.Params params) {
+        PrecomputedTextCompat precomputed = cache.get(key);
+        if (precomputed == null || !precomputed.getParams().equals(params)) return null;
+        return precomputed;
+    }
+
+    /**
+     * measures the text on a background thread, nothing happens until a view of the same kind was
+     * bound once
+     */
+    void prefetch(@NonNull String key, boolean mine, @NonNull TextSource source) {
+        PrecomputedTextCompat.Params params = mine ? paramsMine : paramsTheirs;
+        if (params == null) return;
+        if (get(key, params) != null || !measuring.add(key)) return;
+        executor.execute(() -> {
+            try {
+                Spanned text = source.get();
+                if (text != null) cache.put(key, PrecomputedTextCompat.create(text, params));
+            } finally {
+                measuring.remove(key);
+            }
+        });
+    }
+
+    public void clear() {
+        cache.evictAll();
+    }
+}
@@ -0,0 +1,247 @@
+package com.getstream.sdk.chat.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.media.ThumbnailUtils;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.MediaStore;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import com.getstream.sdk.chat.R;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import io.getstream.chat.android.client.logger.ChatLogger;
+import io.getstream.chat.android.client.logger.TaggedLogger;
+import okio.ByteString;
+
+/**
+ * Cell sized thumbnails of local images and videos for the attachment pickers.
+ * <p>
+ * Images are decoded with an {@code inSampleSize} that keeps them just above the cell size, videos
+ * go through {@link ThumbnailUtils#createVideoThumbnail}, both are center cropped to the cell. The
+ * result is kept in a memory LRU bounded in bytes and written as a JPEG to a disk cache, both keyed
+ * by path, modification time and size, so a file is decoded once until it changes. The disk cache
+ * is bounded too, when it grows over its size the least recently used thumbnails are deleted.
+ */
+public class ThumbnailProvider {
+
+    private static final int DISK_QUALITY = 80;
+    private static final long DEFAULT_MAX_DISK_BYTES = 20 * 1024 * 1024;
+
+    private static final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @Nullable
+    private static ThumbnailProvider instance;
+
+    private final TaggedLogger logger = ChatLogger.Companion.get("ThumbnailProvider");
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    private final LruCache<String, Bitmap> memory;
+    private final File diskDir;
+    private final long maxDiskBytes;
+    // bytes in the disk cache, -1 until the directory was measured
+    private long diskBytes = -1;
+
+    /**
+     * @return the provider shared by the pickers, its memory cache uses 1/16 of the heap
+     */
+    public static synchronized ThumbnailProvider getInstance(@NonNull Context context) {
+        if (instance == null) {
+            int maxBytes = (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 16);
+            instance = new ThumbnailProvider(context, maxBytes);
+        }
+        return instance;
+    }
+
+    /**
+     * @param maxMemoryBytes bytes of bitmaps kept in memory
+     */
+    public ThumbnailProvider(@NonNull Context context, int maxMemoryBytes) {
+        this(context, maxMemoryBytes, DEFAULT_MAX_DISK_BYTES);
+    }
+
+    /**
+     * @param maxMemoryBytes bytes of bitmaps kept in memory
+     * @param maxDiskBytes   bytes of thumbnails kept on disk
+     */
+    public ThumbnailProvider(@NonNull Context context, int maxMemoryBytes, long maxDiskBytes) {
+        this.diskDir = new File(context.getApplicationContext().getCacheDir(), "stream_thumbnails");
+        this.maxDiskBytes = maxDiskBytes;
+        this.memory = new LruCache<String, Bitmap>(maxMemoryBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getByteCount();
+            }
+        };
+    }
+
+    /**
+     * shows the thumbnail of the file in the view, the placeholder is shown until it is ready
+     *
+     * @param size width and height of the thumbnail in pixels
+     */
+    @MainThread
+    public void load(@NonNull File file, boolean isVideo, int size, @NonNull ImageView view, int placeholder) {
+        String key = key(file, size);
+        cancelTask(view);
+        Bitmap cached = memory.get(key);
+        view.setTag(R.id.stream_thumbnail_key, key);
+        if (cached != null) {
+            view.setImageBitmap(cached);
+            return;
+        }
+
+        view.setImageResource(placeholder);
+        Future<?> task = executor.submit(() -> {
+            Bitmap bitmap = loadBlocking(key, file, isVideo, size);
+            if (bitmap == null) return;
+            handler.post(() -> {
+                // the view was bound to another file in the meantime
+                if (key.equals(tagOf(view))) view.setImageBitmap(bitmap);
+            });
+        });
+        view.setTag(R.id.stream_thumbnail_task, task);
+    }
+
+    /**
+     * detaches the view, a pending thumbnail won't be shown in it
+     */
+    @MainThread
+    public void cancel(@NonNull ImageView view) {
+        cancelTask(view);
+        view.setTag(R.id.stream_thumbnail_key, null);
+    }
+
+    /**
+     * drops the load of the view if it didn't start yet, a running one still fills the caches
+     */
+    @MainThread
+    private static void cancelTask(ImageView view) {
+        Object task = view.getTag(R.id.stream_thumbnail_task);
+        if (task instanceof Future) ((Future<?>) task).cancel(false);
+        view.setTag(R.id.stream_thumbnail_task, null);
+    }
+
+    @WorkerThread
+    @Nullable
+    private Bitmap loadBlocking(String key, File file, boolean isVideo, int size) {
+        Bitmap bitmap = memory.get(key);
+        if (bitmap != null) return bitmap;
+
+        File diskFile = new File(diskDir, ByteString.encodeUtf8(key).md5().hex() + ".jpg");
+        if (diskFile.exists()) {
+            bitmap = BitmapFactory.decodeFile(diskFile.getPath());
+            // the modification time orders the thumbnails for the pruning
+            if (bitmap != null) diskFile.setLastModified(System.currentTimeMillis());
+        }
+        if (bitmap == null) {
+            try {
+                bitmap = isVideo ? decodeVideo(file, size) : decodeImage(file, size);
+            } catch (OutOfMemoryError e) {
+                logger.logE("no memory for the thumbnail of " + file.getName());
+                return null;
+            }
+            if (bitmap == null) return null;
+            write(bitmap, diskFile);
+        }
+        memory.put(key, bitmap);
+        return bitmap;
+    }
+
+    @Nullable
+    private static Bitmap decodeImage(File file, int size) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getPath(), options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) return null;
+
+        options.inSampleSize = sampleSize(Math.min(options.outWidth, options.outHeight), size);
+        options.inJustDecodeBounds = false;
+        Bitmap decoded = BitmapFactory.decodeFile(file.getPath(), options);
+        return decoded == null ? null : crop(decoded, size);
+    }
+
+    /**
+     * @return the largest power of 2 that keeps the shorter side at least the cell size, it has to
+     * cover the cell after the center crop
+     */
+    private static int sampleSize(int shorterSide, int size) {
+        int sampleSize = 1;
+        while (shorterSide / (sampleSize * 2) >= size) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    @Nullable
+    private static Bitmap decodeVideo(File file, int size) {
+        int kind = size <= 96 ? MediaStore.Video.Thumbnails.MICRO_KIND : MediaStore.Video.Thumbnails.MINI_KIND;
+        Bitmap frame = ThumbnailUtils.createVideoThumbnail(file.getPath(), kind);
+        return frame == null ? null : crop(frame, size);
+    }
+
+    private static Bitmap crop(Bitmap source, int size) {
+        Bitmap cropped = ThumbnailUtils.extractThumbnail(source, size, size, ThumbnailUtils.OPTIONS_RECYCLE_INPUT);
+        return cropped != null ? cropped : source;
+    }
+
+    private void write(Bitmap bitmap, File diskFile) {
+        if (!diskDir.exists() && !diskDir.mkdirs()) return;
+        try (FileOutputStream out = new FileOutputStream(diskFile)) {
+            bitmap.compress(Bitmap.CompressFormat.JPEG, DISK_QUALITY, out);
+        } catch (IOException e) {
+            logger.logE("failed to cache the thumbnail: " + e.getMessage());
+            diskFile.delete();
+            return;
+        }
+        onDiskWrite(diskFile.length());
+    }
+
+    /**
+     * deletes the least recently used thumbnails once the disk cache is over its size, down to
+     * 3/4 of it so the next writes don't prune again
+     */
+    private synchronized void onDiskWrite(long bytes) {
+        if (diskBytes >= 0) {
+            diskBytes += bytes;
+            if (diskBytes <= maxDiskBytes) return;
+        }
+        File[] files = diskDir.listFiles();
+        if (files == null) return;
+
+        long size = 0;
+        for (File file : files) size += file.length();
+        if (size > maxDiskBytes) {
+            Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+            for (File file : files) {
+                if (size <= maxDiskBytes / 4 * 3) break;
+                long length = file.length();
+                if (file.delete()) size -= length;
+            }
+        }
+        diskBytes = size;
+    }
+
+    private static String key(File file, int size) {
+        return file.getAbsolutePath() + "|" + file.lastModified() + "|" + size;
+    }
+
+    @Nullable
+    private static Object tagOf(ImageView view) {
+        return view.getTag(R.id.stream_thumbnail_key);
+    }
+}
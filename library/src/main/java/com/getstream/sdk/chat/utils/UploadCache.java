@@ -0,0 +1,288 @@
+package com.getstream.sdk.chat.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import io.getstream.chat.android.client.logger.ChatLogger;
+import io.getstream.chat.android.client.logger.TaggedLogger;
+import io.getstream.chat.android.client.models.Attachment;
+import okio.BufferedSource;
+import okio.HashingSink;
+import okio.Okio;
+
+/**
+ * Remembers which content was already uploaded to a channel.
+ * <p>
+ * Files are identified by the SHA-256 of their content, read as a stream in segments so the file
+ * is never held in memory. The hash is kept per path, size and modification time, sending the same
+ * file again doesn't read it again. Once an upload succeeded its urls are stored under the channel
+ * and the hash; identical content sent to the same channel reuses them instead of going to the
+ * network, until the url lifetime is over. Expired entries are removed when the cache is created
+ * and after every upload that is stored, the hashes of the most recent files are kept in memory.
+ */
+public class UploadCache {
+
+    public interface Store {
+        @Nullable
+        Entry get(@NonNull String key);
+
+        void put(@NonNull String key, @NonNull Entry entry);
+
+        void remove(@NonNull String key);
+
+        /**
+         * removes the entries that expired before {@code now}
+         */
+        void removeExpired(long now);
+    }
+
+    public interface Listener {
+        /**
+         * called on the main thread
+         *
+         * @param hash  hex SHA-256 of the file, null if it could not be read
+         * @param entry the earlier upload of the same content, null if there is none
+         */
+        void onLookup(@Nullable String hash, @Nullable Entry entry);
+    }
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private static final int MAX_HASHES = 256;
+
+    private final TaggedLogger logger = ChatLogger.Companion.get("UploadCache");
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final LruCache<String, String> hashes = new LruCache<>(MAX_HASHES);
+
+    private final Store store;
+    private final long lifetimeMs;
+
+    public UploadCache(@NonNull Context context, long lifetimeMs) {
+        this(new PreferencesStore(context), lifetimeMs);
+    }
+
+    /**
+     * @param lifetimeMs time an uploaded url can be reused, the lifetime of the signed urls
+     */
+    public UploadCache(@NonNull Store store, long lifetimeMs) {
+        this.store = store;
+        this.lifetimeMs = lifetimeMs;
+        removeExpired();
+    }
+
+    /**
+     * hashes the file on a background thread and looks for an upload of the same content
+     */
+    public void lookup(@NonNull String cid, @NonNull File file, @NonNull Listener listener) {
+        executor.execute(() -> {
+            String hash = null;
+            Entry entry = null;
+            try {
+                hash = hash(file);
+                entry = lookupBlocking(cid, hash);
+            } catch (IOException e) {
+                logger.logE("failed to hash " + file.getName() + ": " + e.getMessage());
+            }
+            String found = hash;
+            Entry cached = entry;
+            handler.post(() -> listener.onLookup(found, cached));
+        });
+    }
+
+    /**
+     * @return the earlier upload of the content with this hash, null if there is none or it expired
+     */
+    @Nullable
+    public Entry lookupBlocking(@NonNull String cid, @NonNull String hash) {
+        String key = key(cid, hash);
+        Entry entry = store.get(key);
+        if (entry == null) return null;
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            store.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * stores the urls of an uploaded attachment under the hash of its content
+     */
+    public void put(@NonNull String cid, @NonNull String hash, @NonNull Attachment attachment) {
+        String url = attachment.getUrl();
+        if (url == null) return;
+        Entry entry = new Entry(url,
+                attachment.getThumbUrl(),
+                attachment.getName(),
+                attachment.getMimeType(),
+                attachment.getFileSize(),
+                System.currentTimeMillis() + lifetimeMs);
+        store.put(key(cid, hash), entry);
+        removeExpired();
+    }
+
+    private void removeExpired() {
+        executor.execute(() -> store.removeExpired(System.currentTimeMillis()));
+    }
+
+    /**
+     * @return the hex SHA-256 of the content of the file
+     */
+    @WorkerThread
+    @NonNull
+    public String hash(@NonNull File file) throws IOException {
+        String fileKey = file.getAbsolutePath() + "|" + file.length() + "|" + file.lastModified();
+        String hash = hashes.get(fileKey);
+        if (hash != null) return hash;
+
+        try (HashingSink sink = HashingSink.sha256(Okio.blackhole());
+             BufferedSource source = Okio.buffer(Okio.source(file))) {
+            source.readAll(sink);
+            hash = sink.hash().hex();
+        }
+        hashes.put(fileKey, hash);
+        return hash;
+    }
+
+    private static String key(String cid, String hash) {
+        return cid + ":" + hash;
+    }
+
+    public static class Entry {
+        @NonNull
+        public final String url;
+        @Nullable
+        public final String thumbUrl;
+        @Nullable
+        public final String name;
+        @Nullable
+        public final String mimeType;
+        public final int fileSize;
+        public final long expiresAt;
+
+        public Entry(@NonNull String url,
+                     @Nullable String thumbUrl,
+                     @Nullable String name,
+                     @Nullable String mimeType,
+                     int fileSize,
+                     long expiresAt) {
+            this.url = url;
+            this.thumbUrl = thumbUrl;
+            this.name = name;
+            this.mimeType = mimeType;
+            this.fileSize = fileSize;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * keeps the entries in the shared preferences, they survive a restart of the app
+     */
+    public static class PreferencesStore implements Store {
+
+        private final SharedPreferences preferences;
+
+        public PreferencesStore(@NonNull Context context) {
+            preferences = context.getSharedPreferences("stream_upload_cache", Context.MODE_PRIVATE);
+        }
+
+        @Nullable
+        @Override
+        public Entry get(@NonNull String key) {
+            String value = preferences.getString(key, null);
+            if (value == null) return null;
+            try {
+                JSONObject json = new JSONObject(value);
+                return new Entry(json.getString("url"),
+                        json.optString("thumb_url", null),
+                        json.optString("name", null),
+                        json.optString("mime_type", null),
+                        json.optInt("file_size"),
+                        json.getLong("expires_at"));
+            } catch (JSONException e) {
+                remove(key);
+                return null;
+            }
+        }
+
+        @Override
+        public void put(@NonNull String key, @NonNull Entry entry) {
+            try {
+                JSONObject json = new JSONObject()
+                        .put("url", entry.url)
+                        .putOpt("thumb_url", entry.thumbUrl)
+                        .putOpt("name", entry.name)
+                        .putOpt("mime_type", entry.mimeType)
+                        .put("file_size", entry.fileSize)
+                        .put("expires_at", entry.expiresAt);
+                preferences.edit().putString(key, json.toString()).apply();
+            } catch (JSONException e) {
+                // only thrown for non finite numbers
+            }
+        }
+
+        @Override
+        public void remove(@NonNull String key) {
+            preferences.edit().remove(key).apply();
+        }
+
+        @Override
+        public void removeExpired(long now) {
+            SharedPreferences.Editor editor = null;
+            for (String key : preferences.getAll().keySet()) {
+                Entry entry = get(key);
+                if (entry != null && entry.expiresAt > now) continue;
+                if (editor == null) editor = preferences.edit();
+                editor.remove(key);
+            }
+            if (editor != null) editor.apply();
+        }
+    }
+
+    /**
+     * keeps the entries for the lifetime of the process
+     */
+    public static class MemoryStore implements Store {
+
+        private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+        @Nullable
+        @Override
+        public Entry get(@NonNull String key) {
+            return entries.get(key);
+        }
+
+        @Override
+        public void put(@NonNull String key, @NonNull Entry entry) {
+            entries.put(key, entry);
+        }
+
+        @Override
+        public void remove(@NonNull String key) {
+            entries.remove(key);
+        }
+
+        @Override
+        public void removeExpired(long now) {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().expiresAt <= now) iterator.remove();
+            }
+        }
+    }
+}
@@ -1,38 +1,260 @@
 package com.getstream.sdk.chat.utils;
 
+import android.content.Context;
+
 import com.getstream.sdk.chat.Chat;
 import com.getstream.sdk.chat.model.AttachmentMetaData;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.io.File;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
 
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import io.getstream.chat.android.client.errors.ChatError;
 import io.getstream.chat.android.client.models.Attachment;
 import io.getstream.chat.android.client.models.Channel;
 import io.getstream.chat.android.client.models.ModelType;
 import io.getstream.chat.android.client.utils.ProgressCallback;
 
-class UploadManager {
+/**
+ * Schedules the attachment uploads of the message input.
+ * <p>
+ * At most {@code parallelism} files are uploaded at the same time, the others wait in a queue
+ * ordered by the {@link Order}. Progress is reported per file and for the whole batch, weighted by
+ * file size. A cancelled file is removed from the queue, if it is already uploading its result is
+ * ignored. With an {@link ImagePreprocessor} images are shrunk on a background thread right before
+ * they are sent. Videos that come with a thumbnail get it uploaded as well, as the thumb url of
+ * the attachment. With an {@link UploadCache} content that was already uploaded to the channel is
+ * not sent again, the earlier urls are reused. Every upload is traced in {@link UploadMetrics}.
+ * Files written for an upload are deleted when it is done or cancelled.
+ */
+public class UploadManager {
+
+    @IntDef({SELECTION_ORDER, SMALLEST_FIRST})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface Order {
+    }
+
+    public static final int SELECTION_ORDER = 0;
+    public static final int SMALLEST_FIRST = 1;
 
-    private Channel channel;
-    private List<AttachmentMetaData> queue = new ArrayList<>();
+    public static final int DEFAULT_PARALLELISM = 3;
+
+    private static final String TEMPORARY_DIR = "stream_uploads";
+
+    public interface BatchListener {
+        /**
+         * @param progress  percent of the bytes of the batch that were uploaded
+         * @param completed number of files of the batch that are done (uploaded or failed)
+         * @param total     number of files in the batch
+         */
+        void onBatchProgress(int progress, int completed, int total);
+    }
+
+    private final Channel channel;
+    private int parallelism;
+    private PriorityQueue<Task> pending;
+    private final List<Task> active = new ArrayList<>();
+    private final List<Task> batch = new ArrayList<>();
+
+    @Nullable
+    private BatchListener batchListener;
+    @Nullable
+    private ImagePreprocessor imagePreprocessor;
+    @Nullable
+    private UploadCache uploadCache;
+    private UploadMetrics metrics = new UploadMetrics();
+    private long sequence;
 
     public UploadManager(Channel channel) {
+        this(channel, DEFAULT_PARALLELISM, SELECTION_ORDER);
+    }
+
+    /**
+     * @param parallelism number of files uploaded at the same time
+     * @param order       order of the files waiting for a slot
+     */
+    public UploadManager(Channel channel, int parallelism, @Order int order) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be at least 1");
         this.channel = channel;
+        this.parallelism = parallelism;
+        this.pending = new PriorityQueue<>(11, comparator(order));
+    }
+
+    /**
+     * @param parallelism number of files uploaded at the same time, applies to the waiting files too
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be at least 1");
+        synchronized (this) {
+            this.parallelism = parallelism;
+        }
+        schedule();
+    }
+
+    /**
+     * @param order order of the files waiting for a slot, applies to the waiting files too
+     */
+    public synchronized void setOrder(@Order int order) {
+        PriorityQueue<Task> reordered = new PriorityQueue<>(11, comparator(order));
+        reordered.addAll(pending);
+        pending = reordered;
+    }
+
+    private static Comparator<Task> comparator(@Order int order) {
+        return order == SMALLEST_FIRST ? Task.BY_SIZE : Task.BY_SEQUENCE;
+    }
+
+    public void setBatchListener(@Nullable BatchListener batchListener) {
+        this.batchListener = batchListener;
+    }
+
+    public void setImagePreprocessor(@Nullable ImagePreprocessor imagePreprocessor) {
+        this.imagePreprocessor = imagePreprocessor;
+    }
+
+    public void setUploadCache(@Nullable UploadCache uploadCache) {
+        this.uploadCache = uploadCache;
+    }
+
+    /**
+     * @param metrics receives the traces of the uploads queued from now on
+     */
+    public void setMetrics(@NonNull UploadMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @NonNull
+    public UploadMetrics getMetrics() {
+        return metrics;
     }
 
     public void uploadFile(AttachmentMetaData data, ProgressCallback fileListener) {
+        synchronized (this) {
+            // a new batch starts when the previous one is done
+            if (active.isEmpty() && pending.isEmpty()) batch.clear();
+            Task task = new Task(data, fileListener, sequence++, metrics.begin(data.file.getName(), data.file.length()));
+            batch.add(task);
+            pending.add(task);
+        }
+        notifyBatchProgress();
+        schedule();
+    }
+
+    public void removeFromQueue(AttachmentMetaData file) {
+        synchronized (this) {
+            Task task = find(file);
+            if (task == null) return;
+            task.cancel();
+            pending.remove(task);
+            active.remove(task);
+            batch.remove(task);
+        }
+        notifyBatchProgress();
+        schedule();
+    }
+
+    public synchronized boolean isUploadingFile() {
+        return !active.isEmpty() || !pending.isEmpty();
+    }
+
+    public void resetQueue() {
+        synchronized (this) {
+            for (Task task : batch) task.cancel();
+            pending.clear();
+            active.clear();
+            batch.clear();
+        }
+        notifyBatchProgress();
+    }
+
+    /**
+     * @return percent of the bytes of the current batch that were uploaded
+     */
+    public synchronized int getBatchProgress() {
+        long total = 0;
+        long uploaded = 0;
+        for (Task task : batch) {
+            total += task.size;
+            uploaded += task.done ? task.size : task.size * task.progress / 100;
+        }
+        return total == 0 ? 0 : (int) (100 * uploaded / total);
+    }
+
+    private void schedule() {
+        List<Task> ready = new ArrayList<>();
+        synchronized (this) {
+            while (active.size() < parallelism && !pending.isEmpty()) {
+                Task task = pending.poll();
+                active.add(task);
+                ready.add(task);
+            }
+        }
+        for (Task task : ready) lookup(task);
+    }
+
+    private void lookup(Task task) {
+        task.trace.markStarted();
+        UploadCache cache = uploadCache;
+        if (cache == null) {
+            preprocess(task);
+            return;
+        }
+        cache.lookup(channel.getCid(), task.data.file, (hash, entry) -> {
+            if (task.cancelled) return;
+            if (entry == null) {
+                task.hash = hash;
+                preprocess(task);
+            } else {
+                // the expiry of the entry is not extended, it is bound to the first upload
+                task.trace.reused();
+                complete(task, toAttachment(task.data, entry), entry.url);
+            }
+        });
+    }
 
-        queue.add(data);
+    private void preprocess(Task task) {
+        ImagePreprocessor preprocessor = imagePreprocessor;
+        if (preprocessor == null || !task.data.isImage()) {
+            start(task);
+            return;
+        }
+        preprocessor.process(task.data.file, (file, bytesSaved) -> {
+            synchronized (this) {
+                if (task.cancelled) {
+                    if (file != task.data.file) deleteTemporary(file);
+                    return;
+                }
+                if (file != task.data.file) {
+                    task.data.source = task.data.file;
+                    task.data.file = file;
+                    task.data.mimeType = ImagePreprocessor.mimeType(file);
+                    task.size = file.length();
+                }
+            }
+            start(task);
+        });
+    }
 
+    private void start(Task task) {
+        AttachmentMetaData data = task.data;
+        task.trace.markPreprocessed(data.file.length());
         String type = channel.getType();
         String id = channel.getId();
 
         ProgressCallback progressCallback = new ProgressCallback() {
             @Override
             public void onSuccess(@NotNull String path) {
+                if (task.cancelled) return;
+                task.trace.succeeded();
 
                 Attachment attachment = new Attachment();
 
@@ -49,21 +271,28 @@ class UploadManager {
                     attachment.setAssetUrl(path);
                 }
 
-                data.attachment = attachment;
-
-                queue.remove(data);
-                fileListener.onSuccess(path);
+                if (data.thumbnail == null) {
+                    complete(task, attachment, path);
+                } else {
+                    uploadThumbnail(task, attachment, path);
+                }
             }
 
             @Override
             public void onError(@NotNull ChatError error) {
-                queue.remove(data);
-                fileListener.onError(error);
+                if (task.cancelled) return;
+                task.trace.failed(error.getMessage());
+                finish(task);
+                task.listener.onError(error);
             }
 
             @Override
             public void onProgress(long progress) {
-                fileListener.onProgress(progress);
+                if (task.cancelled) return;
+                task.progress = (int) progress;
+                data.progress = (int) progress;
+                task.listener.onProgress(progress);
+                notifyBatchProgress();
             }
         };
 
@@ -72,22 +301,157 @@ class UploadManager {
         } else {
             Chat.getInstance().getClient().sendFile(type, id, data.file, progressCallback);
         }
+    }
+
+    /**
+     * uploads the poster frame of a video, the video is sent without it if that fails
+     */
+    private void uploadThumbnail(Task task, Attachment attachment, String path) {
+        String type = channel.getType();
+        String id = channel.getId();
+        Chat.getInstance().getClient().sendImage(type, id, task.data.thumbnail, new ProgressCallback() {
+            @Override
+            public void onSuccess(@NotNull String thumbUrl) {
+                attachment.setThumbUrl(thumbUrl);
+                complete(task, attachment, path);
+            }
 
+            @Override
+            public void onError(@NotNull ChatError error) {
+                complete(task, attachment, path);
+            }
 
+            @Override
+            public void onProgress(long progress) {
+            }
+        });
     }
 
-    public void removeFromQueue(AttachmentMetaData file) {
-        queue.remove(file);
+    private Attachment toAttachment(AttachmentMetaData data, UploadCache.Entry entry) {
+        Attachment attachment = new Attachment();
+
+        attachment.setMimeType(entry.mimeType != null ? entry.mimeType : data.mimeType);
+        attachment.setFileSize(entry.fileSize);
+        attachment.setName(entry.name != null ? entry.name : data.file.getName());
+        attachment.setType(data.type);
+        attachment.setUrl(entry.url);
+        attachment.setThumbUrl(entry.thumbUrl);
+
+        if (data.type.equals(ModelType.attach_image)) {
+            attachment.setImageUrl(entry.url);
+            attachment.setFallback(attachment.getName());
+        } else {
+            attachment.setAssetUrl(entry.url);
+        }
+        return attachment;
     }
 
-    public boolean isUploadingFile() {
-        return !queue.isEmpty();
+    private void complete(Task task, Attachment attachment, String path) {
+        if (task.cancelled) return;
+        task.data.attachment = attachment;
+        task.data.progress = 100;
+
+        UploadCache cache = uploadCache;
+        if (cache != null && task.hash != null) cache.put(channel.getCid(), task.hash, attachment);
+
+        finish(task);
+        task.listener.onSuccess(path);
     }
 
-    //
-    public void resetQueue() {
-        this.queue.clear();
+    private void finish(Task task) {
+        synchronized (this) {
+            task.done = true;
+            active.remove(task);
+            deleteTemporaryFiles(task.data);
+        }
+        notifyBatchProgress();
+        schedule();
+    }
+
+    private void notifyBatchProgress() {
+        BatchListener listener = batchListener;
+        if (listener == null) return;
+
+        int completed = 0;
+        int total;
+        int progress;
+        synchronized (this) {
+            for (Task task : batch) if (task.done) completed++;
+            total = batch.size();
+            progress = getBatchProgress();
+        }
+        listener.onBatchProgress(progress, completed, total);
+    }
+
+    /**
+     * @return directory of the files written for uploads, by the {@link ImagePreprocessor} and
+     * the {@link VideoPipeline}
+     */
+    static File temporaryDir(Context context) {
+        return new File(context.getCacheDir(), TEMPORARY_DIR);
+    }
+
+    /**
+     * deletes the files written for the upload, the attachment points to the selected file again
+     */
+    private static void deleteTemporaryFiles(AttachmentMetaData data) {
+        if (data.source != null) {
+            File prepared = data.file;
+            data.file = data.source;
+            data.source = null;
+            deleteTemporary(prepared);
+        }
+        // the poster of a video is uploaded as its thumb url, the preview falls back to the video
+        if (data.thumbnail != null) {
+            deleteTemporary(data.thumbnail);
+            data.thumbnail = null;
+        }
     }
-//
 
+    private static void deleteTemporary(File file) {
+        // never a file the user selected
+        File dir = file.getParentFile();
+        if (dir != null && TEMPORARY_DIR.equals(dir.getName())) file.delete();
+    }
+
+    @Nullable
+    private Task find(AttachmentMetaData data) {
+        for (Task task : batch) if (task.data == data) return task;
+        return null;
+    }
+
+    private static class Task {
+        static final Comparator<Task> BY_SEQUENCE = (a, b) -> Long.compare(a.sequence, b.sequence);
+        static final Comparator<Task> BY_SIZE = (a, b) -> {
+            int bySize = Long.compare(a.size, b.size);
+            return bySize != 0 ? bySize : BY_SEQUENCE.compare(a, b);
+        };
+
+        final AttachmentMetaData data;
+        final ProgressCallback listener;
+        final long sequence;
+        volatile long size;
+        // SHA-256 of the file as it was selected, before preprocessing
+        @Nullable
+        String hash;
+
+        final UploadMetrics.Trace trace;
+        volatile boolean cancelled;
+        boolean done;
+        volatile int progress;
+
+        Task(AttachmentMetaData data, ProgressCallback listener, long sequence, UploadMetrics.Trace trace) {
+            this.data = data;
+            this.listener = listener;
+            this.sequence = sequence;
+            this.trace = trace;
+            this.size = data.file.length();
+        }
+
+        void cancel() {
+            cancelled = true;
+            if (!done) trace.cancelled();
+            deleteTemporaryFiles(data);
+        }
+    }
 }
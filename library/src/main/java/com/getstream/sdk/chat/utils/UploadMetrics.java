@@ -0,0 +1,300 @@
+package com.getstream.sdk.chat.utils;
+
+import android.os.SystemClock;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Timings and counters of the attachment uploads.
+ * <p>
+ * Every upload gets a {@link Trace} that records when it was queued, left the queue, was
+ * preprocessed and was acknowledged by the server, along with its size. The client sends the file
+ * and only reports percents, so the time on the wire and the server time are measured together.
+ * Finished traces are handed to the {@link Listener}s and summed up in counters, so an app can
+ * forward single uploads or totals to its own telemetry.
+ */
+public class UploadMetrics {
+
+    public interface Listener {
+        /**
+         * called on the thread that finished the upload, the main thread for uploads made by the
+         * message input
+         */
+        void onUploadFinished(@NonNull Trace trace);
+    }
+
+    @IntDef({PENDING, SUCCEEDED, FAILED, CANCELLED, REUSED})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface Outcome {
+    }
+
+    /**
+     * the upload is not finished yet
+     */
+    public static final int PENDING = -1;
+
+    public static final int SUCCEEDED = 0;
+    public static final int FAILED = 1;
+    public static final int CANCELLED = 2;
+    /**
+     * the content was uploaded before and its url was reused, nothing was sent
+     */
+    public static final int REUSED = 3;
+
+    private static final long UNSET = -1;
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong sendMs = new AtomicLong();
+    private final AtomicLong queueMs = new AtomicLong();
+    private final AtomicLong preprocessMs = new AtomicLong();
+
+    public void addListener(@NonNull Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(@NonNull Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * starts the trace of an upload that was just queued
+     */
+    @NonNull
+    public Trace begin(@NonNull String name, long bytes) {
+        return new Trace(this, name, bytes);
+    }
+
+    /**
+     * @return the totals of all the uploads finished so far
+     */
+    @NonNull
+    public Counters getCounters() {
+        return new Counters(succeeded.get(),
+                failed.get(),
+                cancelled.get(),
+                reused.get(),
+                bytesSent.get(),
+                sendMs.get(),
+                queueMs.get(),
+                preprocessMs.get());
+    }
+
+    private void finish(Trace trace) {
+        switch (trace.outcome) {
+            case SUCCEEDED:
+                succeeded.incrementAndGet();
+                bytesSent.addAndGet(trace.uploadedBytes);
+                sendMs.addAndGet(Math.max(0, trace.getSendMs()));
+                break;
+            case FAILED:
+                failed.incrementAndGet();
+                break;
+            case CANCELLED:
+                cancelled.incrementAndGet();
+                break;
+            case REUSED:
+                reused.incrementAndGet();
+                break;
+        }
+        queueMs.addAndGet(Math.max(0, trace.getQueueMs()));
+        preprocessMs.addAndGet(Math.max(0, trace.getPreprocessMs()));
+
+        for (Listener listener : listeners) listener.onUploadFinished(trace);
+    }
+
+    /**
+     * the timeline of a single upload, times are {@link SystemClock#elapsedRealtime()} millis and
+     * -1 when the upload didn't get there
+     */
+    public static class Trace {
+
+        private final UploadMetrics metrics;
+
+        @NonNull
+        public final String name;
+        public final long originalBytes;
+        public final long queuedAt;
+
+        private volatile long startedAt = UNSET;
+        private volatile long preprocessedAt = UNSET;
+        private volatile long acknowledgedAt = UNSET;
+        private volatile long uploadedBytes;
+        @Outcome
+        private volatile int outcome = PENDING;
+        @Nullable
+        private volatile String error;
+        private volatile boolean finished;
+
+        Trace(UploadMetrics metrics, String name, long originalBytes) {
+            this.metrics = metrics;
+            this.name = name;
+            this.originalBytes = originalBytes;
+            this.uploadedBytes = originalBytes;
+            this.queuedAt = now();
+        }
+
+        /**
+         * the upload left the queue
+         */
+        public void markStarted() {
+            startedAt = now();
+        }
+
+        /**
+         * the file is ready to be sent, after preprocessing if there was any
+         *
+         * @param bytes size of the file that is sent
+         */
+        public void markPreprocessed(long bytes) {
+            preprocessedAt = now();
+            uploadedBytes = bytes;
+        }
+
+        public void succeeded() {
+            acknowledgedAt = now();
+            finish(SUCCEEDED, null);
+        }
+
+        public void reused() {
+            finish(REUSED, null);
+        }
+
+        public void failed(@Nullable String error) {
+            finish(FAILED, error);
+        }
+
+        public void cancelled() {
+            finish(CANCELLED, null);
+        }
+
+        private void finish(@Outcome int outcome, @Nullable String error) {
+            synchronized (this) {
+                if (finished) return;
+                finished = true;
+            }
+            this.outcome = outcome;
+            this.error = error;
+            metrics.finish(this);
+        }
+
+        @Outcome
+        public int getOutcome() {
+            return outcome;
+        }
+
+        @Nullable
+        public String getError() {
+            return error;
+        }
+
+        /**
+         * @return bytes sent, smaller than {@link #originalBytes} when the file was preprocessed
+         */
+        public long getUploadedBytes() {
+            return uploadedBytes;
+        }
+
+        public long getStartedAt() {
+            return startedAt;
+        }
+
+        public long getPreprocessedAt() {
+            return preprocessedAt;
+        }
+
+        public long getAcknowledgedAt() {
+            return acknowledgedAt;
+        }
+
+        /**
+         * @return time spent waiting for a free upload slot
+         */
+        public long getQueueMs() {
+            return between(queuedAt, startedAt);
+        }
+
+        /**
+         * @return time spent hashing, shrinking or encoding the file
+         */
+        public long getPreprocessMs() {
+            return between(startedAt, preprocessedAt);
+        }
+
+        /**
+         * @return time from handing the file to the client until the server acknowledged it
+         */
+        public long getSendMs() {
+            return between(preprocessedAt, acknowledgedAt);
+        }
+
+        /**
+         * @return bytes per second over the send time, -1 if unknown
+         */
+        public long getThroughput() {
+            long sendMs = getSendMs();
+            if (sendMs <= 0) return UNSET;
+            return uploadedBytes * 1000 / sendMs;
+        }
+
+        private static long between(long from, long to) {
+            return from == UNSET || to == UNSET ? UNSET : to - from;
+        }
+
+        private static long now() {
+            return SystemClock.elapsedRealtime();
+        }
+    }
+
+    /**
+     * totals of the finished uploads
+     */
+    public static class Counters {
+        public final long succeeded;
+        public final long failed;
+        public final long cancelled;
+        public final long reused;
+        public final long bytesSent;
+        public final long sendMs;
+        public final long queueMs;
+        public final long preprocessMs;
+
+        Counters(long succeeded,
+                 long failed,
+                 long cancelled,
+                 long reused,
+                 long bytesSent,
+                 long sendMs,
+                 long queueMs,
+                 long preprocessMs) {
+            this.succeeded = succeeded;
+            this.failed = failed;
+            this.cancelled = cancelled;
+            this.reused = reused;
+            this.bytesSent = bytesSent;
+            this.sendMs = sendMs;
+            this.queueMs = queueMs;
+            this.preprocessMs = preprocessMs;
+        }
+
+        /**
+         * @return average bytes per second of the successful uploads, -1 if unknown
+         */
+        public long getThroughput() {
+            return sendMs <= 0 ? -1 : bytesSent * 1000 / sendMs;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.getstream.sdk.chat.utils;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.media.MediaCodec;
+import android.media.MediaCodecInfo;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.media.MediaMetadataRetriever;
+import android.media.MediaMuxer;
+import android.os.Build;
+import android.view.Surface;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import io.getstream.chat.android.client.logger.ChatLogger;
+import io.getstream.chat.android.client.logger.TaggedLogger;
+
+/**
+ * Prepares captured videos for upload on a background thread.
+ * <p>
+ * The metadata is read once: duration, size and a poster frame that is stored as a small JPEG,
+ * so it can be uploaded next to the video as its thumbnail. With a target bitrate the video track
+ * is re-encoded to H.264 with {@link MediaCodec}, the decoder renders straight into the encoder
+ * input surface and the audio track is copied as is. The original file is kept when the video is
+ * already below the target bitrate or when transcoding fails. The {@link UploadManager} deletes the
+ * poster and the transcoded video once their upload is done or cancelled.
+ */
+public class VideoPipeline {
+
+    public interface Listener {
+        /**
+         * called on the pipeline thread
+         */
+        void onProcessed(@NonNull Result result);
+    }
+
+    public static class Result {
+        @NonNull
+        public final File video;
+        @Nullable
+        public final File thumbnail;
+        public final long durationMs;
+        public final int width;
+        public final int height;
+
+        Result(@NonNull File video, @Nullable File thumbnail, long durationMs, int width, int height) {
+            this.video = video;
+            this.thumbnail = thumbnail;
+            this.durationMs = durationMs;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    private static final String VIDEO_MIME = MediaFormat.MIMETYPE_VIDEO_AVC;
+    private static final long TIMEOUT_US = 10000;
+    private static final int THUMBNAIL_SIZE = 480;
+    private static final int THUMBNAIL_QUALITY = 80;
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private final TaggedLogger logger = ChatLogger.Companion.get("VideoPipeline");
+
+    private final File outputDir;
+    private final int targetBitrate;
+
+    public VideoPipeline(@NonNull Context context) {
+        this(context, 0);
+    }
+
+    /**
+     * @param targetBitrate video bitrate in bits per second, 0 keeps the original video
+     */
+    public VideoPipeline(@NonNull Context context, int targetBitrate) {
+        this.outputDir = UploadManager.temporaryDir(context);
+        this.targetBitrate = targetBitrate;
+    }
+
+    public void process(@NonNull File video, @NonNull Listener listener) {
+        executor.execute(() -> listener.onProcessed(processBlocking(video)));
+    }
+
+    @WorkerThread
+    @NonNull
+    public Result processBlocking(@NonNull File video) {
+        long durationMs = 0;
+        int width = 0;
+        int height = 0;
+        int bitrate = 0;
+        File thumbnail = null;
+
+        MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+        try {
+            retriever.setDataSource(video.getPath());
+            durationMs = parseLong(retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION));
+            width = (int) parseLong(retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_VIDEO_WIDTH));
+            height = (int) parseLong(retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_VIDEO_HEIGHT));
+            bitrate = (int) parseLong(retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_BITRATE));
+
+            // a frame a bit into the video is more telling than the first one, often black
+            long frameAtUs = Math.min(1000, durationMs / 2) * 1000;
+            Bitmap frame = retriever.getFrameAtTime(frameAtUs, MediaMetadataRetriever.OPTION_CLOSEST_SYNC);
+            if (frame != null) thumbnail = writeThumbnail(video, frame);
+        } catch (RuntimeException | IOException e) {
+            logger.logE("failed to read " + video.getName() + ": " + e.getMessage());
+        } finally {
+            retriever.release();
+        }
+
+        File output = video;
+        if (targetBitrate > 0 && bitrate > targetBitrate && width > 0 && height > 0) {
+            File transcoded = new File(outputDir, baseName(video) + "_" + targetBitrate + ".mp4");
+            try {
+                transcode(video, transcoded);
+                if (transcoded.length() > 0 && transcoded.length() < video.length()) {
+                    logger.logI("transcoded " + video.getName() + ", saved " + (video.length() - transcoded.length()) + " bytes");
+                    output = transcoded;
+                } else {
+                    transcoded.delete();
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.logE("failed to transcode " + video.getName() + ": " + e.getMessage());
+                transcoded.delete();
+            }
+        }
+
+        return new Result(output, thumbnail, durationMs, width, height);
+    }
+
+    private File writeThumbnail(File video, Bitmap frame) throws IOException {
+        float scale = Math.min(1f, (float) THUMBNAIL_SIZE / Math.max(frame.getWidth(), frame.getHeight()));
+        Bitmap scaled = scale < 1f
+                ? Bitmap.createScaledBitmap(frame, Math.round(frame.getWidth() * scale), Math.round(frame.getHeight() * scale), true)
+                : frame;
+
+        if (!outputDir.exists() && !outputDir.mkdirs()) throw new IOException("can't create " + outputDir);
+        File thumbnail = new File(outputDir, baseName(video) + "_thumb.jpg");
+        try (FileOutputStream out = new FileOutputStream(thumbnail)) {
+            scaled.compress(Bitmap.CompressFormat.JPEG, THUMBNAIL_QUALITY, out);
+        } finally {
+            if (scaled != frame) scaled.recycle();
+            frame.recycle();
+        }
+        return thumbnail;
+    }
+
+    // region Transcoding
+
+    private void transcode(File input, File output) throws IOException {
+        if (!outputDir.exists() && !outputDir.mkdirs()) throw new IOException("can't create " + outputDir);
+
+        MediaExtractor videoExtractor = new MediaExtractor();
+        MediaExtractor audioExtractor = new MediaExtractor();
+        MediaCodec decoder = null;
+        MediaCodec encoder = null;
+        Surface inputSurface = null;
+        MediaMuxer muxer = null;
+        boolean muxerStarted = false;
+
+        try {
+            videoExtractor.setDataSource(input.getPath());
+            audioExtractor.setDataSource(input.getPath());
+            int videoTrack = selectTrack(videoExtractor, "video/");
+            int audioTrack = selectTrack(audioExtractor, "audio/");
+            if (videoTrack < 0) throw new IOException("no video track");
+            videoExtractor.selectTrack(videoTrack);
+            MediaFormat inputFormat = videoExtractor.getTrackFormat(videoTrack);
+
+            int width = inputFormat.getInteger(MediaFormat.KEY_WIDTH);
+            int height = inputFormat.getInteger(MediaFormat.KEY_HEIGHT);
+            MediaFormat outputFormat = MediaFormat.createVideoFormat(VIDEO_MIME, width, height);
+            outputFormat.setInteger(MediaFormat.KEY_COLOR_FORMAT, MediaCodecInfo.CodecCapabilities.COLOR_FormatSurface);
+            outputFormat.setInteger(MediaFormat.KEY_BIT_RATE, targetBitrate);
+            outputFormat.setInteger(MediaFormat.KEY_FRAME_RATE, inputFormat.containsKey(MediaFormat.KEY_FRAME_RATE)
+                    ? inputFormat.getInteger(MediaFormat.KEY_FRAME_RATE)
+                    : 30);
+            outputFormat.setInteger(MediaFormat.KEY_I_FRAME_INTERVAL, 2);
+
+            encoder = MediaCodec.createEncoderByType(VIDEO_MIME);
+            encoder.configure(outputFormat, null, null, MediaCodec.CONFIGURE_FLAG_ENCODE);
+            inputSurface = encoder.createInputSurface();
+            encoder.start();
+
+            decoder = MediaCodec.createDecoderByType(inputFormat.getString(MediaFormat.KEY_MIME));
+            decoder.configure(inputFormat, inputSurface, null, 0);
+            decoder.start();
+
+            muxer = new MediaMuxer(output.getPath(), MediaMuxer.OutputFormat.MUXER_OUTPUT_MPEG_4);
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M && inputFormat.containsKey(MediaFormat.KEY_ROTATION)) {
+                muxer.setOrientationHint(inputFormat.getInteger(MediaFormat.KEY_ROTATION));
+            }
+
+            int muxerAudioTrack = -1;
+            if (audioTrack >= 0) {
+                audioExtractor.selectTrack(audioTrack);
+                muxerAudioTrack = muxer.addTrack(audioExtractor.getTrackFormat(audioTrack));
+            }
+
+            int muxerVideoTrack = -1;
+            MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+            boolean inputDone = false;
+            boolean decoderDone = false;
+            boolean encoderDone = false;
+
+            while (!encoderDone) {
+                if (!inputDone) {
+                    int index = decoder.dequeueInputBuffer(TIMEOUT_US);
+                    if (index >= 0) {
+                        ByteBuffer buffer = decoder.getInputBuffer(index);
+                        int size = videoExtractor.readSampleData(buffer, 0);
+                        if (size < 0) {
+                            decoder.queueInputBuffer(index, 0, 0, 0, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+                            inputDone = true;
+                        } else {
+                            decoder.queueInputBuffer(index, 0, size, videoExtractor.getSampleTime(), 0);
+                            videoExtractor.advance();
+                        }
+                    }
+                }
+
+                if (!decoderDone) {
+                    int index = decoder.dequeueOutputBuffer(info, TIMEOUT_US);
+                    if (index >= 0) {
+                        boolean endOfStream = (info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0;
+                        // rendering hands the frame to the encoder surface
+                        decoder.releaseOutputBuffer(index, info.size > 0);
+                        if (endOfStream) {
+                            encoder.signalEndOfInputStream();
+                            decoderDone = true;
+                        }
+                    }
+                }
+
+                int index = encoder.dequeueOutputBuffer(info, TIMEOUT_US);
+                if (index == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+                    muxerVideoTrack = muxer.addTrack(encoder.getOutputFormat());
+                    muxer.start();
+                    muxerStarted = true;
+                } else if (index >= 0) {
+                    ByteBuffer encoded = encoder.getOutputBuffer(index);
+                    boolean codecConfig = (info.flags & MediaCodec.BUFFER_FLAG_CODEC_CONFIG) != 0;
+                    if (info.size > 0 && !codecConfig && muxerStarted) {
+                        muxer.writeSampleData(muxerVideoTrack, encoded, info);
+                    }
+                    encoder.releaseOutputBuffer(index, false);
+                    encoderDone = (info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0;
+                }
+            }
+
+            if (!muxerStarted) throw new IOException("encoder produced no output");
+            if (muxerAudioTrack >= 0) copyTrack(audioExtractor, muxer, muxerAudioTrack);
+        } finally {
+            videoExtractor.release();
+            audioExtractor.release();
+            release(decoder);
+            release(encoder);
+            if (inputSurface != null) inputSurface.release();
+            if (muxer != null) {
+                if (muxerStarted) muxer.stop();
+                muxer.release();
+            }
+        }
+    }
+
+    private static void release(@Nullable MediaCodec codec) {
+        if (codec == null) return;
+        try {
+            codec.stop();
+        } catch (IllegalStateException e) {
+            // the codec was never started
+        }
+        codec.release();
+    }
+
+    private static void copyTrack(MediaExtractor extractor, MediaMuxer muxer, int track) {
+        ByteBuffer buffer = ByteBuffer.allocate(256 * 1024);
+        MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+        while (true) {
+            info.offset = 0;
+            info.size = extractor.readSampleData(buffer, 0);
+            if (info.size < 0) return;
+            info.presentationTimeUs = extractor.getSampleTime();
+            info.flags = extractor.getSampleFlags();
+            muxer.writeSampleData(track, buffer, info);
+            extractor.advance();
+        }
+    }
+
+    private static int selectTrack(MediaExtractor extractor, String mimePrefix) {
+        for (int i = 0; i < extractor.getTrackCount(); i++) {
+            String mime = extractor.getTrackFormat(i).getString(MediaFormat.KEY_MIME);
+            if (mime != null && mime.startsWith(mimePrefix)) return i;
+        }
+        return -1;
+    }
+
+    // endregion
+
+    private static long parseLong(@Nullable String value) {
+        if (value == null) return 0;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String baseName(File file) {
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+}
@@ -60,6 +60,9 @@ public class CircularImageView
     private Paint mCheckMarkPaint;
     private Paint mCheckedBackgroundPaint;
     private Paint mTextPaint;
+    private Paint mPlaceholderPaint;
+    // rasterized placeholder, dropped whenever something it shows changes
+    private Bitmap mPlaceholderBitmap;
     private int mWidth, mHeight, mRadius;
     private float mShadowRadius;
     private int mLongStrokeHeight;
@@ -135,6 +138,7 @@ public class CircularImageView
         }
 
         mBitmapPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mPlaceholderPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
 
         setBorderInternal(mBorderWidth, mBorderColor, false);
         setPlaceholderTextInternal(mText,
@@ -166,6 +170,7 @@ public class CircularImageView
                                    boolean invalidate) {
         mBorderWidth = rawSize;
         mBorderColor = color;
+        mPlaceholderBitmap = null;
 
         if (null == mBorderPaint) {
             mBorderPaint = new Paint();
@@ -196,6 +201,7 @@ public class CircularImageView
                                    boolean invalidate) {
         mShadowRadius = radius;
         mShadowColor = color;
+        mPlaceholderBitmap = null;
 
         // Reset previous shadow layer
         mBorderPaint.clearShadowLayer();
@@ -243,6 +249,7 @@ public class CircularImageView
         mText = formatPlaceholderText(text);
         mTextColor = color;
         mTextSize = textSize;
+        mPlaceholderBitmap = null;
 
         if ((null == mTextPaint) &&
                 (textSize > 0) &&
@@ -283,6 +290,7 @@ public class CircularImageView
         mText = formatPlaceholderText(text);
         mTextColor = color;
         mTextSize = textSize;
+        mPlaceholderBitmap = null;
 
         if ((null == mTextPaint) &&
                 (textSize > 0) &&
@@ -311,6 +319,7 @@ public class CircularImageView
         mWidth = w;
         mHeight = h;
         mRadius = Math.min(w, h) / 2;
+        mPlaceholderBitmap = null;
 
         // Check stroke
         mLongStrokeHeight = mRadius;
@@ -348,6 +357,7 @@ public class CircularImageView
         if (mAlpha != alpha) {
             mAlpha = alpha;
             if (null != mBitmapPaint) mBitmapPaint.setAlpha(alpha);
+            if (null != mPlaceholderPaint) mPlaceholderPaint.setAlpha(alpha);
             if (null != mBorderPaint) mBorderPaint.setAlpha(alpha);
             if (null != mBackgroundPaint) mBackgroundPaint.setAlpha(alpha);
             if (null != mCheckMarkPaint) mCheckMarkPaint.setAlpha(alpha);
@@ -460,6 +470,7 @@ public class CircularImageView
             mBackgroundColor = backgroundColor;
             if (null != mBackgroundPaint) {
                 mBackgroundPaint.setColor(backgroundColor);
+                mPlaceholderBitmap = null;
                 invalidate = true;
             }
         }
@@ -616,6 +627,9 @@ public class CircularImageView
             if (null != getDrawable()) {
                 // Draws the bitmap if available
                 canvas.drawCircle(x, y, mRadius - offset, mBitmapPaint);
+            } else if (null != placeholderBitmap(mRadius - offset)) {
+                // Placeholder background and character, drawn once per look
+                canvas.drawBitmap(mPlaceholderBitmap, 0, 0, mPlaceholderPaint);
             } else {
                 // Placeholder background
                 canvas.drawCircle(x, y, mRadius - offset, mBackgroundPaint);
@@ -628,6 +642,27 @@ public class CircularImageView
         }
     }
 
+    /**
+     * Returns the rasterized placeholder from the shared {@link PlaceholderCache}.
+     *
+     * @param radius
+     * @return
+     */
+    private Bitmap placeholderBitmap(float radius) {
+        if (null == mPlaceholderBitmap) {
+            boolean hasText = (null != mTextPaint) && !TextUtils.isEmpty(mText);
+            mPlaceholderBitmap = PlaceholderCache.getInstance().get(mWidth,
+                    mHeight,
+                    radius,
+                    hasText ? mText : null,
+                    mBackgroundColor,
+                    mTextColor,
+                    hasText ? mTextPaint.getTextSize() : 0,
+                    hasText ? mTextPaint.getTypeface() : null);
+        }
+        return mPlaceholderBitmap;
+    }
+
     /**
      * Draws the checked state.
      *
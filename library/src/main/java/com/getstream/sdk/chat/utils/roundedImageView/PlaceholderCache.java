@@ -0,0 +1,120 @@
+package com.getstream.sdk.chat.utils.roundedImageView;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.text.TextUtils;
+import android.util.LruCache;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Initials placeholders of {@link CircularImageView}s, rasterized once.
+ * <p>
+ * A placeholder is a filled circle with the initials centered on it. Every distinct placeholder is
+ * drawn into a bitmap with shared paints the first time it is needed and kept in a LRU bounded in
+ * bytes, keyed by initials, colors, size and typeface, so the rows of users without an image draw a
+ * bitmap instead of laying out text on every frame.
+ */
+public class PlaceholderCache {
+
+    @Nullable
+    private static PlaceholderCache instance;
+
+    private final LruCache<String, Bitmap> cache;
+    private final Paint backgroundPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    /**
+     * @return the cache shared by all the views, it uses 1/64 of the heap
+     */
+    public static synchronized PlaceholderCache getInstance() {
+        if (instance == null) {
+            int maxBytes = (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 64);
+            instance = new PlaceholderCache(maxBytes);
+        }
+        return instance;
+    }
+
+    /**
+     * @param maxBytes bytes of bitmaps kept in memory
+     */
+    public PlaceholderCache(int maxBytes) {
+        cache = new LruCache<String, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getByteCount();
+            }
+        };
+        backgroundPaint.setStyle(Paint.Style.FILL);
+        textPaint.setStyle(Paint.Style.FILL);
+        textPaint.setTextAlign(Paint.Align.CENTER);
+    }
+
+    /**
+     * @param width   width of the view
+     * @param height  height of the view
+     * @param radius  radius of the circle, centered in the view
+     * @param text    initials, nothing is drawn on the circle if empty
+     * @param typeface typeface of the initials, the default one if null
+     * @return the placeholder, null if the view has no size yet
+     */
+    @MainThread
+    @Nullable
+    public Bitmap get(int width,
+                      int height,
+                      float radius,
+                      @Nullable String text,
+                      @ColorInt int backgroundColor,
+                      @ColorInt int textColor,
+                      float textSize,
+                      @Nullable Typeface typeface) {
+        if (width <= 0 || height <= 0 || radius <= 0) return null;
+        String key = width + "x" + height + "|" + radius + "|" + text + "|" + backgroundColor + "|" + textColor + "|" + textSize + "|" + System.identityHashCode(typeface);
+        Bitmap bitmap = cache.get(key);
+        if (bitmap == null) {
+            try {
+                bitmap = draw(width, height, radius, text, backgroundColor, textColor, textSize, typeface);
+            } catch (OutOfMemoryError e) {
+                return null;
+            }
+            cache.put(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    public void clear() {
+        cache.evictAll();
+    }
+
+    @NonNull
+    private Bitmap draw(int width,
+                        int height,
+                        float radius,
+                        @Nullable String text,
+                        int backgroundColor,
+                        int textColor,
+                        float textSize,
+                        @Nullable Typeface typeface) {
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        float x = width / 2;
+        float y = height / 2;
+
+        backgroundPaint.setColor(backgroundColor);
+        canvas.drawCircle(x, y, radius, backgroundPaint);
+
+        if (!TextUtils.isEmpty(text) && textSize > 0) {
+            textPaint.setColor(textColor);
+            textPaint.setTextSize(textSize);
+            textPaint.setTypeface(typeface != null ? typeface : Typeface.DEFAULT);
+            int ty = (int) ((height - (textPaint.ascent() + textPaint.descent())) * 0.5f);
+            canvas.drawText(text, x, ty, textPaint);
+        }
+        return bitmap;
+    }
+}
@@ -1,19 +1,26 @@
 package com.getstream.sdk.chat.view;
 
 import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+import android.graphics.Typeface;
 import android.text.TextUtils;
 import android.util.AttributeSet;
 import android.util.TypedValue;
+import android.widget.ImageView;
 import android.widget.RelativeLayout;
 
 import com.bumptech.glide.Glide;
-import com.bumptech.glide.request.RequestOptions;
 import com.getstream.sdk.chat.Chat;
+import com.getstream.sdk.chat.R;
 import com.getstream.sdk.chat.style.ChatFonts;
+import com.getstream.sdk.chat.utils.AvatarGroupCache;
+import com.getstream.sdk.chat.utils.ImageLoader;
 import com.getstream.sdk.chat.utils.LlcMigrationUtils;
 import com.getstream.sdk.chat.utils.Utils;
 import com.getstream.sdk.chat.utils.roundedImageView.CircularImageView;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import androidx.annotation.NonNull;
@@ -31,6 +38,9 @@ public class AvatarGroupView<STYLE extends BaseStyle> extends RelativeLayout {
     List<User> lastActiveUsers;
     User user;
     float factor = 1.7f;
+    // reused between binds, created when first needed
+    private final CircularImageView[] avatarViews = new CircularImageView[3];
+    private ImageView composedView;
 
     public AvatarGroupView(Context context) {
         super(context);
@@ -77,8 +87,6 @@ public class AvatarGroupView<STYLE extends BaseStyle> extends RelativeLayout {
             this.setLayoutParams(params);
         }
 
-        removeAllViews();
-
         if (user != null) {
             configSingleAvatar(user.getExtraValue("image", ""), LlcMigrationUtils.getInitials(user));
         } else if (channel != null && !TextUtils.isEmpty(LlcMigrationUtils.getImage(channel))) {
@@ -91,51 +99,11 @@ public class AvatarGroupView<STYLE extends BaseStyle> extends RelativeLayout {
 
     private void configUserAvatars() {
 
-        if (lastActiveUsers != null && !lastActiveUsers.isEmpty()) {
-            for (int i = 0; i < Math.min(lastActiveUsers.size(), 3); i++) {
-                User user_ = lastActiveUsers.get(i);
-                if (lastActiveUsers.size() == 1) {
-                    configSingleAvatar(user_.getExtraValue("image", ""), LlcMigrationUtils.getInitials(user_));
-                } else {
-                    CircularImageView imageView = new CircularImageView(context);
-                    configAvatarView(imageView, user_.getExtraValue("image", ""), LlcMigrationUtils.getInitials(user_), factor);
-                    imageView.setBorderWidth(TypedValue.COMPLEX_UNIT_PX,
-                            style.getAvatarBorderWidth());
-
-                    RelativeLayout.LayoutParams params;
-                    params = new RelativeLayout.LayoutParams(
-                            (int) (style.getAvatarWidth() / factor),
-                            (int) (style.getAvatarHeight() / factor));
-
-                    if (lastActiveUsers.size() == 2) {
-                        if (i == 0) {
-                            params.addRule(RelativeLayout.ALIGN_PARENT_START);
-                            params.addRule(RelativeLayout.ALIGN_PARENT_TOP);
-                        } else {
-                            params.addRule(RelativeLayout.ALIGN_PARENT_END);
-                            params.addRule(RelativeLayout.ALIGN_PARENT_BOTTOM);
-                            params.setMarginEnd(20);
-                        }
-                    } else {
-                        switch (i) {
-                            case 0:
-                                params.addRule(RelativeLayout.ALIGN_PARENT_START);
-                                params.addRule(RelativeLayout.ALIGN_PARENT_TOP);
-                                break;
-                            case 1:
-                                params.addRule(RelativeLayout.ALIGN_PARENT_END);
-                                params.addRule(RelativeLayout.ALIGN_PARENT_TOP);
-                                break;
-                            default:
-                                params.addRule(RelativeLayout.ALIGN_PARENT_BOTTOM);
-                                params.addRule(RelativeLayout.CENTER_HORIZONTAL);
-                                break;
-                        }
-                    }
-                    imageView.setLayoutParams(params);
-                    this.addView(imageView);
-                }
-            }
+        if (lastActiveUsers != null && lastActiveUsers.size() == 1) {
+            User user_ = lastActiveUsers.get(0);
+            configSingleAvatar(user_.getExtraValue("image", ""), LlcMigrationUtils.getInitials(user_));
+        } else if (lastActiveUsers != null && !lastActiveUsers.isEmpty()) {
+            configGroupAvatar();
         } else {
 
             String initials = LlcMigrationUtils.getInitials(channel);
@@ -145,15 +113,109 @@ public class AvatarGroupView<STYLE extends BaseStyle> extends RelativeLayout {
         }
     }
 
+    private void configGroupAvatar() {
+        int count = Math.min(lastActiveUsers.size(), 3);
+        List<AvatarGroupCache.Member> members = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user_ = lastActiveUsers.get(i);
+            members.add(new AvatarGroupCache.Member(user_.getExtraValue("image", ""),
+                    LlcMigrationUtils.getInitials(user_),
+                    memberBounds(count, i)));
+        }
+        int width = style.getAvatarWidth();
+        int height = style.getAvatarHeight();
+        AvatarGroupCache.Look look = new AvatarGroupCache.Look(style.getAvatarBorderWidth(),
+                style.getAvatarBorderColor(),
+                style.getAvatarBackGroundColor(),
+                style.avatarInitialText.color,
+                style.avatarInitialText.size / factor,
+                initialsTypeface());
+        String key = AvatarGroupCache.key(members, width, height, look);
+        setTag(R.id.stream_avatar_key, key);
+
+        AvatarGroupCache groupCache = AvatarGroupCache.getInstance();
+        Bitmap composed = groupCache.get(key);
+        if (composed != null) {
+            showComposed(composed);
+            return;
+        }
+
+        // the members show one by one until the group is drawn
+        for (int i = 0; i < avatarViews.length; i++) {
+            if (i >= count) {
+                hideAvatarView(i);
+                continue;
+            }
+            User user_ = lastActiveUsers.get(i);
+            Rect bounds = members.get(i).bounds;
+            CircularImageView imageView = avatarView(i);
+            configAvatarView(imageView, user_.getExtraValue("image", ""), LlcMigrationUtils.getInitials(user_), factor);
+            imageView.setBorderWidth(TypedValue.COMPLEX_UNIT_PX,
+                    style.getAvatarBorderWidth());
+            RelativeLayout.LayoutParams params = (RelativeLayout.LayoutParams) imageView.getLayoutParams();
+            params.width = bounds.width();
+            params.height = bounds.height();
+            params.leftMargin = bounds.left;
+            params.topMargin = bounds.top;
+            imageView.setLayoutParams(params);
+            imageView.setVisibility(VISIBLE);
+        }
+        hideComposed();
+
+        groupCache.compose(context, key, members, width, height, look, (String composedKey, Bitmap bitmap) -> {
+            if (composedKey.equals(getTag(R.id.stream_avatar_key))) showComposed(bitmap);
+        });
+    }
+
+    /**
+     * @return where the member avatar is drawn, the first two on top, the third at the bottom
+     * center, or the second at the bottom end of a pair
+     */
+    private Rect memberBounds(int count, int index) {
+        int width = style.getAvatarWidth();
+        int height = style.getAvatarHeight();
+        int memberWidth = (int) (width / factor);
+        int memberHeight = (int) (height / factor);
+        int left;
+        int top;
+        if (count == 2) {
+            left = index == 0 ? 0 : width - memberWidth - 20;
+            top = index == 0 ? 0 : height - memberHeight;
+        } else {
+            switch (index) {
+                case 0:
+                    left = 0;
+                    top = 0;
+                    break;
+                case 1:
+                    left = width - memberWidth;
+                    top = 0;
+                    break;
+                default:
+                    left = (width - memberWidth) / 2;
+                    top = height - memberHeight;
+                    break;
+            }
+        }
+        if (getLayoutDirection() == LAYOUT_DIRECTION_RTL) left = width - left - memberWidth;
+        return new Rect(left, top, left + memberWidth, top + memberHeight);
+    }
+
     private void configSingleAvatar(String image, String initial) {
-        CircularImageView imageView = new CircularImageView(context);
+        setTag(R.id.stream_avatar_key, null);
+        hideComposed();
+        for (int i = 1; i < avatarViews.length; i++) hideAvatarView(i);
+
+        CircularImageView imageView = avatarView(0);
         configAvatarView(imageView, image, initial, 1);
-        RelativeLayout.LayoutParams params;
-        params = new RelativeLayout.LayoutParams(
-                (style.getAvatarWidth()),
-                (style.getAvatarHeight()));
+        imageView.setBorderWidth(TypedValue.COMPLEX_UNIT_PX, 0);
+        RelativeLayout.LayoutParams params = (RelativeLayout.LayoutParams) imageView.getLayoutParams();
+        params.width = style.getAvatarWidth();
+        params.height = style.getAvatarHeight();
+        params.leftMargin = 0;
+        params.topMargin = 0;
         imageView.setLayoutParams(params);
-        this.addView(imageView);
+        imageView.setVisibility(VISIBLE);
     }
 
     private void configAvatarView(CircularImageView imageView, String image, String initial, float factor) {
@@ -163,12 +225,59 @@ public class AvatarGroupView<STYLE extends BaseStyle> extends RelativeLayout {
                 style.avatarInitialText.color);
 
         if (!Utils.isSVGImage(image))
-            Glide.with(context)
-                    .load(Chat.getInstance().urlSigner().signImageUrl(image))
-                    .apply(RequestOptions.circleCropTransform())
-                    .into(imageView);
+            ImageLoader.loadAvatar(imageView,
+                    image,
+                    (int) (style.getAvatarWidth() / factor),
+                    (int) (style.getAvatarHeight() / factor));
+        else
+            // the view may still show the image of its previous user
+            Glide.with(context).clear(imageView);
 
         ChatFonts chatFonts = Chat.getInstance().getFonts();
         chatFonts.setFont(style.avatarInitialText, imageView, factor);
     }
+
+    private CircularImageView avatarView(int index) {
+        if (avatarViews[index] == null) {
+            CircularImageView imageView = new CircularImageView(context);
+            // placed by margins from the left, the bounds are already mirrored for RTL
+            RelativeLayout.LayoutParams params = new RelativeLayout.LayoutParams(0, 0);
+            params.addRule(RelativeLayout.ALIGN_PARENT_LEFT);
+            params.addRule(RelativeLayout.ALIGN_PARENT_TOP);
+            imageView.setLayoutParams(params);
+            avatarViews[index] = imageView;
+            addView(imageView);
+        }
+        return avatarViews[index];
+    }
+
+    private void hideAvatarView(int index) {
+        CircularImageView imageView = avatarViews[index];
+        if (imageView == null || imageView.getVisibility() == GONE) return;
+        Glide.with(context).clear(imageView);
+        imageView.setVisibility(GONE);
+    }
+
+    private void showComposed(Bitmap bitmap) {
+        for (int i = 0; i < avatarViews.length; i++) hideAvatarView(i);
+        if (composedView == null) {
+            composedView = new ImageView(context);
+            composedView.setLayoutParams(new RelativeLayout.LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT));
+            addView(composedView);
+        }
+        composedView.setImageBitmap(bitmap);
+        composedView.setVisibility(VISIBLE);
+    }
+
+    private void hideComposed() {
+        if (composedView == null) return;
+        composedView.setImageDrawable(null);
+        composedView.setVisibility(GONE);
+    }
+
+    private Typeface initialsTypeface() {
+        Typeface typeface = Chat.getInstance().getFonts().getFont(style.avatarInitialText);
+        if (typeface != null) return typeface;
+        return Typeface.create(Typeface.DEFAULT, Math.max(0, style.avatarInitialText.style));
+    }
 }
@@ -16,6 +16,7 @@ import com.getstream.sdk.chat.Chat;
 import com.getstream.sdk.chat.R;
 import com.getstream.sdk.chat.adapter.ReactionDialogAdapter;
 import com.getstream.sdk.chat.model.ModelType;
+import com.getstream.sdk.chat.storage.Outbox;
 import com.getstream.sdk.chat.utils.Utils;
 import com.getstream.sdk.chat.view.MessageListViewStyle;
 import com.getstream.sdk.chat.viewmodel.ChannelViewModel;
@@ -126,10 +127,13 @@ public class MessageMoreActionDialog extends Dialog {
                     @Override
                     public Unit invoke(Result<Message> messageResult) {
 
+                        Outbox outbox = Chat.getInstance().getOutbox();
                         if (messageResult.isSuccess()) {
                             Utils.showMessage(context, "Deleted Successfully");
                             if (TextUtils.isEmpty(message.getParentId()))
                                 viewModel.initThread();
+                        } else if (outbox != null) {
+                            outbox.enqueueDelete(viewModel.getCid(), message.getId());
                         } else {
                             ChatError error = messageResult.error();
                             Utils.showMessage(context, error.getMessage());
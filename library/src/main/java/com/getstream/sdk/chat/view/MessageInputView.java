@@ -93,6 +93,12 @@ public class MessageInputView extends RelativeLayout {
     protected ChannelViewModel viewModel;
 
     private MessageInputController messageInputController;
+    private ImagePreprocessor imagePreprocessor;
+    private boolean imagePreprocessorSet;
+    private int uploadParallelism = UploadManager.DEFAULT_PARALLELISM;
+    @UploadManager.Order
+    private int uploadOrder = UploadManager.SELECTION_ORDER;
+    private UploadManager.BatchListener uploadBatchListener;
 
     // region constructor
     public MessageInputView(Context context, AttributeSet attrs) {
@@ -231,6 +237,10 @@ public class MessageInputView extends RelativeLayout {
 
             onSendMessage();
         });
+        if (imagePreprocessorSet) messageInputController.setImagePreprocessor(imagePreprocessor);
+        messageInputController.setUploadParallelism(uploadParallelism);
+        messageInputController.setUploadOrder(uploadOrder);
+        messageInputController.setUploadBatchListener(uploadBatchListener);
         binding.rvMedia.setLayoutManager(new GridLayoutManager(getContext(), 4, RecyclerView.VERTICAL, false));
         binding.rvMedia.hasFixedSize();
         binding.rvComposer.setLayoutManager(new GridLayoutManager(getContext(), 1, RecyclerView.HORIZONTAL, false));
@@ -580,6 +590,44 @@ public class MessageInputView extends RelativeLayout {
         this.messageSendListener = manager;
     }
 
+    /**
+     * sets how images are shrunk before they are uploaded, pass null to upload the originals
+     *
+     * @param imagePreprocessor the preprocessor, by default images are limited to 2048 px and
+     *                          re-encoded as JPEG with quality 85
+     */
+    public void setImagePreprocessor(@Nullable ImagePreprocessor imagePreprocessor) {
+        this.imagePreprocessor = imagePreprocessor;
+        this.imagePreprocessorSet = true;
+        if (messageInputController != null) messageInputController.setImagePreprocessor(imagePreprocessor);
+    }
+
+    /**
+     * @param parallelism number of attachments uploaded at the same time, 3 by default
+     */
+    public void setUploadParallelism(int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be at least 1");
+        this.uploadParallelism = parallelism;
+        if (messageInputController != null) messageInputController.setUploadParallelism(parallelism);
+    }
+
+    /**
+     * @param order order of the attachments waiting for an upload slot, the selection order by default
+     */
+    public void setUploadOrder(@UploadManager.Order int order) {
+        this.uploadOrder = order;
+        if (messageInputController != null) messageInputController.setUploadOrder(order);
+    }
+
+    /**
+     * @param listener receives the progress of all the attachments being uploaded, called on the
+     *                 main thread. The input shows it as a bar below the selected attachments
+     */
+    public void setUploadBatchListener(@Nullable UploadManager.BatchListener listener) {
+        this.uploadBatchListener = listener;
+        if (messageInputController != null) messageInputController.setUploadBatchListener(listener);
+    }
+
     public void setPermissionRequestListener(PermissionRequestListener l) {
         this.permissionRequestListener = l;
     }
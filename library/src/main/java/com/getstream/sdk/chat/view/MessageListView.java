@@ -7,6 +7,7 @@ import android.util.AttributeSet;
 import android.view.View;
 
 import com.facebook.drawee.backends.pipeline.Fresco;
+import com.facebook.imagepipeline.core.ImagePipelineConfig;
 import com.getstream.sdk.chat.Chat;
 import com.getstream.sdk.chat.DefaultBubbleHelper;
 import com.getstream.sdk.chat.adapter.MessageListItem;
@@ -14,11 +15,14 @@ import com.getstream.sdk.chat.adapter.MessageListItemAdapter;
 import com.getstream.sdk.chat.adapter.MessageViewHolderFactory;
 import com.getstream.sdk.chat.enums.GiphyAction;
 import com.getstream.sdk.chat.navigation.destinations.AttachmentDestination;
+import com.getstream.sdk.chat.utils.ImageCacheMetrics;
+import com.getstream.sdk.chat.utils.SignedCacheKeyFactory;
 import com.getstream.sdk.chat.utils.Utils;
 import com.getstream.sdk.chat.view.Dialog.MessageMoreActionDialog;
 import com.getstream.sdk.chat.view.Dialog.ReadUsersDialog;
 import com.getstream.sdk.chat.viewmodel.ChannelViewModel;
 
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
@@ -39,6 +43,9 @@ import io.getstream.chat.android.client.models.*;
  * - The list_item_message template to use (perhaps, multiple ones...?)
  */
 public class MessageListView extends RecyclerView {
+    // messages measured ahead of the scroll direction
+    private static final int TEXT_PREFETCH_DISTANCE = 6;
+    private static final int IMAGE_PREFETCH_DISTANCE = 6;
     //    private int firstVisible;
     private static int fVPosition, lVPosition;
     final String TAG = MessageListView.class.getSimpleName();
@@ -99,7 +106,11 @@ public class MessageListView extends RecyclerView {
 
     private void init() {
         try {
-            Fresco.initialize(getContext());
+            ImagePipelineConfig config = ImagePipelineConfig.newBuilder(getContext())
+                    .setCacheKeyFactory(SignedCacheKeyFactory.getInstance())
+                    .setRequestListeners(Collections.singleton(ImageCacheMetrics.getInstance().frescoListener()))
+                    .build();
+            Fresco.initialize(getContext(), config);
         } catch (Exception e) {
         }
     }
@@ -111,6 +122,9 @@ public class MessageListView extends RecyclerView {
     }
 
     public void setAdapterWithStyle(MessageListItemAdapter adapter) {
+        // the loads of the replaced adapter are for messages that are not shown anymore
+        if (getAdapter() instanceof MessageListItemAdapter && getAdapter() != adapter)
+            ((MessageListItemAdapter) getAdapter()).cancelImagePrefetch();
 
         adapter.setStyle(style);
         adapter.setGiphySendListener(viewModel::sendGiphy);
@@ -147,6 +161,15 @@ public class MessageListView extends RecyclerView {
                     }, 100);
                     fVPosition = currentFirstVisible;
                     viewModel.setThreadParentPosition(lVPosition);
+
+                    // measure the messages and load the images that scroll into view next
+                    if (dy < 0) {
+                        adapter.prefetchText(currentFirstVisible - TEXT_PREFETCH_DISTANCE, currentFirstVisible - 1);
+                        adapter.prefetchImages(currentFirstVisible - IMAGE_PREFETCH_DISTANCE, currentFirstVisible - 1, true);
+                    } else if (dy > 0) {
+                        adapter.prefetchText(currentLastVisible + 1, currentLastVisible + TEXT_PREFETCH_DISTANCE);
+                        adapter.prefetchImages(currentLastVisible + 1, currentLastVisible + IMAGE_PREFETCH_DISTANCE, false);
+                    }
                 }
             }
         });
@@ -166,6 +189,13 @@ public class MessageListView extends RecyclerView {
         super.setAdapter(adapter);
     }
 
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (getAdapter() instanceof MessageListItemAdapter)
+            ((MessageListItemAdapter) getAdapter()).cancelImagePrefetch();
+    }
+
     public void setViewModel(ChannelViewModel viewModel, LifecycleOwner lifecycleOwner) {
         this.viewModel = viewModel;
         init();
@@ -197,6 +227,8 @@ public class MessageListView extends RecyclerView {
             }
 
             adapter.replaceEntities(entities);
+            // new messages arrive at the bottom
+            adapter.prefetchText(entities.size() - TEXT_PREFETCH_DISTANCE, entities.size() - 1);
 
             // Scroll to origin position on return from thread
             if (backFromThread) {
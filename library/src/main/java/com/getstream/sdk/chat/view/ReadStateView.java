@@ -9,10 +9,10 @@ import android.view.Gravity;
 import android.widget.RelativeLayout;
 import android.widget.TextView;
 
-import com.bumptech.glide.Glide;
 import com.getstream.sdk.chat.Chat;
 import com.getstream.sdk.chat.R;
 import com.getstream.sdk.chat.style.ChatFonts;
+import com.getstream.sdk.chat.utils.ImageLoader;
 import com.getstream.sdk.chat.utils.LlcMigrationUtils;
 import com.getstream.sdk.chat.utils.Utils;
 import com.getstream.sdk.chat.utils.roundedImageView.CircularImageView;
@@ -54,7 +54,7 @@ public class ReadStateView<STYLE extends BaseStyle> extends RelativeLayout {
         ChatFonts chatFonts = Chat.getInstance().getFonts();
 
         User user = reads.get(0).getUser();
-        String image = user.getExtraValue("name", "");
+        String image = user.getExtraValue("image", "");
         // Avatar
         CircularImageView imageView = new CircularImageView(getContext());
 
@@ -75,11 +75,10 @@ public class ReadStateView<STYLE extends BaseStyle> extends RelativeLayout {
                     style.readStateText.style);
 
         if (!Utils.isSVGImage(image))
-            Glide.with(getContext())
-                    .load(image)
-                    //TODO: llc check glide
-                    //.load(StreamChat.getInstance().getUploadStorage().signGlideUrl(image))
-                    .into(imageView);
+            ImageLoader.loadAvatar(imageView,
+                    image,
+                    style.getReadStateAvatarWidth(),
+                    style.getReadStateAvatarHeight());
 
         RelativeLayout.LayoutParams avatarParams = new RelativeLayout.LayoutParams(
                 (style.getReadStateAvatarWidth()),
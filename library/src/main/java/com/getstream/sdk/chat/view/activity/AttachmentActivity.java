@@ -9,10 +9,10 @@ import android.widget.ImageView;
 import android.widget.ProgressBar;
 import android.widget.Toast;
 
-import com.bumptech.glide.Glide;
 import com.getstream.sdk.chat.Chat;
 import com.getstream.sdk.chat.R;
 import com.getstream.sdk.chat.model.ModelType;
+import com.getstream.sdk.chat.utils.ImageLoader;
 import com.getstream.sdk.chat.utils.Utils;
 
 import androidx.appcompat.app.AppCompatActivity;
@@ -100,8 +100,7 @@ public class AttachmentActivity extends AppCompatActivity {
         iv_image.setVisibility(View.VISIBLE);
         webView.setVisibility(View.GONE);
 
-        Glide.with(this)
-                .load(Chat.getInstance().urlSigner().signImageUrl(url))
+        ImageLoader.request(this, url)
                 .placeholder(R.drawable.stream_placeholder)
                 .into(iv_image);
     }
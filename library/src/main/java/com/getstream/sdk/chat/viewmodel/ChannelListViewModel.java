@@ -11,7 +11,9 @@ import com.getstream.sdk.chat.utils.RetryPolicy;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import androidx.annotation.NonNull;
@@ -144,6 +146,7 @@ public class ChannelListViewModel extends AndroidViewModel implements LifecycleH
         logger.logI("onCleared");
 
         if (subscription != null) subscription.unsubscribe();
+        if (recoverySubscription != null) recoverySubscription.unsubscribe();
     }
 
     public boolean setLoading() {
@@ -234,33 +237,51 @@ public class ChannelListViewModel extends AndroidViewModel implements LifecycleH
     }
 
     protected void setupConnectionRecovery() {
-        //TODO: llc check if recovery required
-//        recoverySubscriptionId = client().addEventHandler(new ChatEventHandler() {
-//            @Override
-//            public void onConnectionRecovered(Event event) {
-//                StreamChat.getLogger().logI(this, "onConnectionRecovered");
-//                if (!queryChannelDone) {
-//                    queryChannelsInner(0);
-//                    return;
-//                }
-//                setLoadingDone();
-//                boolean changed = false;
-//                List<Channel> channelCopy = channels.getValue();
-//                for (Channel channel : client().getActiveChannels()) {
-//                    int idx = -1;
-//                    if (channelCopy != null) {
-//                        idx = channelCopy.lastIndexOf(channel);
-//                    }
-//                    if (idx != -1) {
-//                        channelCopy.set(idx, channel);
-//                        changed = true;
-//                    }
-//                }
-//                if (changed) channels.postValue(channelCopy);
-//            }
-//        });
+        // a socket that is already up won't send its first ConnectedEvent again
+        AtomicBoolean connectedBefore = new AtomicBoolean(Chat.getInstance().getClient().isSocketConnected());
+        recoverySubscription = Chat.getInstance().getClient().events().filter(ConnectedEvent.class).subscribe(event -> {
+            if (!connectedBefore.getAndSet(true)) return Unit.INSTANCE;
+
+            logger.logI("onConnectionRecovered");
+            if (!queryChannelDone) {
+                queryChannelsInner(0);
+                return Unit.INSTANCE;
+            }
+            setLoadingDone();
+            recoverFirstPage();
+            return Unit.INSTANCE;
+        });
+    }
+
+    /**
+     * queries the first page again and merges it with a single update: the channels that changed
+     * while disconnected move to the top, the older pages stay as they are
+     */
+    protected void recoverFirstPage() {
+        QueryChannelsRequest request = new QueryChannelsRequest(filter, 0, pageSize, sort, 20);
+        Chat.getInstance().getClient().queryChannels(request).enqueue(result -> {
+            if (!result.isSuccess()) {
+                logger.logE("connection recovery failed: " + result.error().getMessage());
+                return Unit.INSTANCE;
+            }
+
+            List<Channel> firstPage = result.data();
+            Set<String> cids = new HashSet<>();
+            for (Channel channel : firstPage) cids.add(channel.getCid());
+
+            List<Channel> channelCopy = new ArrayList<>(firstPage);
+            List<Channel> current = channels.getValue();
+            if (current != null) {
+                for (Channel channel : current) {
+                    if (!cids.contains(channel.getCid())) channelCopy.add(channel);
+                }
+            }
+            updateChannelsLiveData(channelCopy);
+            return Unit.INSTANCE;
+        });
     }
 
+    private Subscription recoverySubscription;
     private Subscription subscription;//notification.mark_read //message.read
 
     protected void initEventHandlers() {
@@ -1,6 +1,7 @@
 package com.getstream.sdk.chat.viewmodel;
 
 import android.app.Application;
+import android.os.Handler;
 import android.text.TextUtils;
 
 import com.getstream.sdk.chat.Chat;
@@ -10,15 +11,20 @@ import com.getstream.sdk.chat.StreamLifecycleObserver;
 import com.getstream.sdk.chat.enums.GiphyAction;
 import com.getstream.sdk.chat.enums.InputType;
 import com.getstream.sdk.chat.model.ModelType;
+import com.getstream.sdk.chat.storage.Outbox;
+import com.getstream.sdk.chat.storage.PendingOperation;
+import com.getstream.sdk.chat.storage.StorageManager;
 import com.getstream.sdk.chat.utils.*;
 
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import androidx.annotation.MainThread;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
@@ -45,6 +51,8 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
 
     protected static final String TAG = ChannelViewModel.class.getSimpleName();
 
+    private static final Handler mainHandler = new Handler(android.os.Looper.getMainLooper());
+
     /**
      * The A livedata object for the list of messages
      */
@@ -99,10 +107,53 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
     protected MutableLiveData<InputType> inputType = new MutableLiveData<>(InputType.DEFAULT);
     protected MessageListItemLiveData entities;
     protected boolean enableMarkRead; // Used to prevent automatic mark reading messages.
+    protected MessageListSnapshotStore snapshotStore;
 
     private List<Subscription> subscriptions = new ArrayList<>();
+    // messages shown before the API confirmed them, they are waiting in the outbox
+    private Set<String> localMessageIds = Collections.newSetFromMap(new ConcurrentHashMap<>());
     private TaggedLogger logger = ChatLogger.Companion.get("ChannelViewModel");
 
+    private ReconnectSyncEngine.SyncTarget syncTarget = new ReconnectSyncEngine.SyncTarget() {
+        @Nullable
+        @Override
+        public String getLastMessageId() {
+            if (initialized.getValue() == null) return null;
+            List<Message> current = messages.getValue();
+            if (current == null) return null;
+            // the API only knows the messages it confirmed
+            for (int i = current.size() - 1; i >= 0; i--) {
+                Message message = current.get(i);
+                if (localMessageIds.contains(message.getId())
+                        || ModelType.message_error.equals(message.getType())
+                        || ModelType.message_ephemeral.equals(message.getType()))
+                    continue;
+                return message.getId();
+            }
+            return null;
+        }
+
+        @Override
+        public void onSynced(@NotNull Channel channel, @NotNull List<Message> missed, boolean complete) {
+            // the sync engine calls back on its own thread, the message list is only changed on main
+            mainHandler.post(() -> onReconnectSynced(channel, missed, complete));
+        }
+    };
+
+    private Outbox.Listener outboxListener = new Outbox.Listener() {
+        @Override
+        public void onMessageSynced(@NotNull Message message) {
+            localMessageIds.remove(message.getId());
+            if (getCid().equals(message.getCid())) upsertMessage(message);
+        }
+
+        @Override
+        public void onOperationFailed(@NotNull PendingOperation operation, @NotNull ChatError error) {
+            if (operation.getType() == PendingOperation.SEND && getCid().equals(operation.getCid()))
+                markMessageFailed(operation.getMessageId());
+        }
+    };
+
 
     public ChannelViewModel(Application application, String channelType, String channelId) {
         super(application);
@@ -118,6 +169,7 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
         User currentUser = Chat.getInstance().getClient().getCurrentUser();
 
         entities = new MessageListItemLiveData(currentUser, messages, threadMessages, typingUsers, reads);
+        snapshotStore = new MessageListSnapshotStore(application, currentUser == null ? null : currentUser.getId());
 
         typingState = new HashMap<>();
         editMessage = new MutableLiveData<>();
@@ -145,6 +197,9 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
         new StreamLifecycleObserver(this);
 
         setupConnectionRecovery();
+
+        Outbox outbox = Chat.getInstance().getOutbox();
+        if (outbox != null) outbox.addListener(outboxListener);
     }
 
     // region Getter
@@ -165,6 +220,10 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
         return channelState.getValue();
     }
 
+    public String getCid() {
+        return channelType + ":" + channelId;
+    }
+
     public LiveData<Channel> getInitialized() {
         return initialized;
     }
@@ -397,6 +456,7 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
             Channel channel = event.getChannel();
 
             if (event instanceof NewMessageEvent) {
+                localMessageIds.remove(event.getMessage().getId());
                 upsertMessage(event.getMessage());
             } else if (event instanceof UserStartWatchingEvent) {
 
@@ -568,17 +628,39 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
         return updated;
     }
 
+    /**
+     * keeps a message that couldn't be sent in the list while it waits in the outbox
+     */
     protected void updateFailedMessage(Message message) {
-        // doesn't touch the message order, since message.created_at can't change
-        List<Message> messagesCopy = messages.getValue();
-        int index = LlcMigrationUtils.indexOf(messagesCopy, message);
-        boolean updated = index != -1;
-        if (updated) {
-            User currentUser = Chat.getInstance().getClient().getCurrentUser();
+        User currentUser = Chat.getInstance().getClient().getCurrentUser();
+        if (TextUtils.isEmpty(message.getId())) {
+            // the outbox sends the message with this id, so the new message event replaces it
             String clientSideID = currentUser.getUserId() + "-" + randomUUID().toString();
             message.setId(clientSideID);
-            messagesCopy.set(index, message);
-            updateMessageLiveData(messagesCopy);
+        }
+        if (message.getCreatedAt() == null) message.setCreatedAt(new Date());
+        message.user = currentUser;
+        localMessageIds.add(message.getId());
+        upsertMessage(message);
+    }
+
+    /**
+     * shows a message the outbox gave up sending as failed. The client messages have no sync
+     * status, so it is marked {@link ModelType#message_error}, which the list draws as failed
+     */
+    protected void markMessageFailed(String messageId) {
+        List<Message> messagesCopy = getMessages().getValue();
+        if (messagesCopy == null) return;
+        for (int i = 0; i < messagesCopy.size(); i++) {
+            Message message = messagesCopy.get(i);
+            if (message.getId().equals(messageId)) {
+                message.setType(ModelType.message_error);
+                if (isThread())
+                    threadMessages.postValue(messagesCopy);
+                else
+                    updateMessageLiveData(messagesCopy);
+                break;
+            }
         }
     }
 
@@ -749,6 +831,7 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
     @Override
     public void stopped() {
         logger.logI("stopped");
+        writeSnapshot();
     }
 
     @Override
@@ -757,9 +840,14 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
 
         logger.logI("onCleared");
 
+        writeSnapshot();
+
         for (Subscription sub : subscriptions) sub.unsubscribe();
         subscriptions.clear();
 
+        Outbox outbox = Chat.getInstance().getOutbox();
+        if (outbox != null) outbox.removeListener(outboxListener);
+        Chat.getInstance().getReconnectSync().unregister(getCid(), syncTarget);
 
         if (looper != null) {
             looper.interrupt();
@@ -772,28 +860,63 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
     }
 
     protected void setupConnectionRecovery() {
+        Chat.getInstance().getReconnectSync().register(getCid(), syncTarget);
+    }
 
-        //TODO: llc unsubscrube
-        subscriptions.add(Chat.getInstance().getClient().events().subscribe(chatEvent -> {
-            if (chatEvent instanceof ConnectedEvent) {
-
-                //TODO: llc refresh on connected
-
-//                    String type = channel.getType();
-//                    String id = channel.getId();
-//                    StreamChat.getInstance().queryChannel(type, id, new ChannelQueryRequest().withMessages()).enqueue(
-//                            new Function1<Result<Channel>, Unit>() {
-//                                @Override
-//                                public Unit invoke(Result<Channel> channelResult) {
-//                                    addMessages(channel.getMessages());
-//                                    channelLoadingDone();
-//                                    return null;
-//                                }
-//                            }
-//                    );
+    /**
+     * merges the messages missed while disconnected with a single update of the message list,
+     * runs on the main thread so it can't race with new message events
+     */
+    @MainThread
+    protected void onReconnectSynced(Channel channel, List<Message> missed, boolean complete) {
+        List<Message> messagesCopy;
+        if (complete) {
+            List<Message> current = messages.getValue();
+            messagesCopy = current == null ? new ArrayList<>() : new ArrayList<>(current);
+            for (Message message : missed) {
+                int index = LlcMigrationUtils.indexOf(messagesCopy, message);
+                if (index == -1) {
+                    messagesCopy.add(message);
+                } else {
+                    messagesCopy.set(index, message);
+                }
             }
-            return null;
-        }));
+        } else {
+            // there is a gap before the newest page, older messages are paginated again
+            messagesCopy = new ArrayList<>(missed);
+            reachedEndOfPagination = false;
+        }
+
+        channelState.setValue(channel);
+        reads.setValue(getReadsByUser(channel));
+        messages.setValue(messagesCopy);
+    }
+
+    /**
+     * stores the last rendered messages, so the next time the channel is opened they can be
+     * shown while the channel query runs
+     */
+    protected void writeSnapshot() {
+        // never write back a snapshot that was not refreshed by the channel query
+        if (initialized.getValue() == null) return;
+        List<Message> current = messages.getValue();
+        if (current != null) snapshotStore.write(getCid(), new ArrayList<>(current));
+    }
+
+    /**
+     * shows the messages from the last snapshot of this channel, they are replaced as soon as
+     * the channel is loaded
+     */
+    protected void showSnapshot() {
+        if (messages.getValue() != null) return;
+        if (android.os.Looper.myLooper() != android.os.Looper.getMainLooper()) return;
+
+        User currentUser = Chat.getInstance().getClient().getCurrentUser();
+        List<Message> snapshot = snapshotStore.read(getCid(), currentUser);
+        if (snapshot != null && !snapshot.isEmpty()) {
+            logger.logI("showing " + snapshot.size() + " messages from snapshot");
+            messages.setValue(snapshot);
+        }
     }
 
     /**
@@ -803,6 +926,11 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
         int limit = 10; // Constant.DEFAULT_LIMIT
         if (!setLoading()) return;
 
+        showSnapshot();
+
+        StorageManager storageManager = Chat.getInstance().getStorageManager();
+        if (storageManager != null) storageManager.onChannelOpened(getCid());
+
         ChannelWatchRequest request = new ChannelWatchRequest().withMessages(limit);
 
         Chat.getInstance().getClient().queryChannel(channelType, channelId, request).enqueue(channelResult -> {
@@ -944,8 +1072,13 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
                     upsertMessage(m);
                     return Unit.INSTANCE;
                 }).onError(chatError -> {
-                    Utils.showMessage(getApplication(), R.string.stream_message_failed_send_toast);
-                    //updateFailedMessage(message);
+                    Outbox outbox = Chat.getInstance().getOutbox();
+                    if (outbox == null) {
+                        Utils.showMessage(getApplication(), R.string.stream_message_failed_send_toast);
+                    } else {
+                        updateFailedMessage(message);
+                        outbox.enqueueSend(getCid(), message);
+                    }
                     return Unit.INSTANCE;
                 });
     }
@@ -957,11 +1090,6 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
      * @param message the Message sent
      */
     public Call<Message> editMessage(Message message) {
-//        if (message.getSyncStatus() == Sync.LOCAL_UPDATE_PENDING) {
-//            replaceMessage(message, message);
-//            return;
-//        }
-
         // Check Error or Pending Messages
         checkErrorOrPendingMessage();
 
@@ -969,7 +1097,13 @@ public class ChannelViewModel extends AndroidViewModel implements LifecycleHandl
             upsertMessage(message1);
             return Unit.INSTANCE;
         }).onError(chatError -> {
-            Utils.showMessage(getApplication(), R.string.stream_message_failed_edit_toast);
+            Outbox outbox = Chat.getInstance().getOutbox();
+            if (outbox == null) {
+                Utils.showMessage(getApplication(), R.string.stream_message_failed_edit_toast);
+            } else {
+                upsertMessage(message);
+                outbox.enqueueEdit(getCid(), message);
+            }
             return Unit.INSTANCE;
         });
     }
@@ -0,0 +1,94 @@
+package com.getstream.sdk.chat;
+
+import com.getstream.sdk.chat.utils.MentionMatcher;
+import com.getstream.sdk.chat.utils.MentionTransformer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import io.getstream.chat.android.client.models.Message;
+import io.getstream.chat.android.client.models.User;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MentionTransformerTest {
+
+    @Test
+    void matcherPrefersTheLongestName() {
+        MentionMatcher matcher = new MentionMatcher(Arrays.asList("Ann", "Anna"));
+        String text = "hi @Anna and @Ann!";
+
+        List<int[]> mentions = matcher.find(text, 0, text.length());
+
+        assertEquals(2, mentions.size());
+        assertArrayEquals(new int[]{3, 8}, mentions.get(0));
+        assertArrayEquals(new int[]{13, 17}, mentions.get(1));
+    }
+
+    @Test
+    void matcherOnlyFindsNamesAfterAt() {
+        MentionMatcher matcher = new MentionMatcher(Arrays.asList("Anna", "Bob", "ob"));
+        String text = "Anna met @Bob";
+
+        List<int[]> mentions = matcher.find(text, 0, text.length());
+
+        assertEquals(1, mentions.size());
+        assertArrayEquals(new int[]{9, 13}, mentions.get(0));
+    }
+
+    @Test
+    void matcherStaysInTheRange() {
+        MentionMatcher matcher = new MentionMatcher(Arrays.asList("Bob"));
+        String text = "@Bob @Bob";
+
+        List<int[]> mentions = matcher.find(text, 1, text.length());
+
+        assertEquals(1, mentions.size());
+        assertArrayEquals(new int[]{5, 9}, mentions.get(0));
+    }
+
+    @Test
+    void matcherWithoutNamesFindsNothing() {
+        MentionMatcher matcher = new MentionMatcher(Arrays.asList("", null));
+
+        assertTrue(matcher.find("@ @@", 0, 4).isEmpty());
+    }
+
+    @Test
+    void everyMentionIsBold() {
+        Message message = message("@Ann hi @Anna, bye @Ann", user("ann", "Ann"), user("anna", "Anna"));
+
+        assertEquals("**@Ann** hi **@Anna**, bye **@Ann**", MentionTransformer.toMarkdown(message));
+    }
+
+    @Test
+    void lineBreaksBecomeMarkdownLineBreaks() {
+        Message message = message("\r\nfirst\nsecond\n");
+
+        assertEquals("first  \nsecond", MentionTransformer.toMarkdown(message));
+    }
+
+    @Test
+    void textKeepsTheMentionsForSpans() {
+        Message message = message("HI@Steep moonThere\nbye", user("steep-moon-9", "Steep moon"));
+
+        assertEquals("HI@Steep moonThere  \nbye", MentionTransformer.toText(message));
+    }
+
+    private static Message message(String text, User... mentioned) {
+        Message message = new Message();
+        message.setText(text);
+        message.getMentionedUsers().addAll(Arrays.asList(mentioned));
+        return message;
+    }
+
+    private static User user(String id, String name) {
+        User user = new User(id);
+        user.getExtraData().put("name", name);
+        return user;
+    }
+}
@@ -0,0 +1,35 @@
+package com.getstream.sdk.chat.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ImageCacheKeysTest {
+
+    @Test
+    void urlWithoutQueryIsKept() {
+        assertEquals("https://cdn.example.com/a.jpg", ImageCacheKeys.stripSignature("https://cdn.example.com/a.jpg"));
+    }
+
+    @Test
+    void cloudFrontSignatureIsStripped() {
+        String url = "https://cdn.example.com/a.jpg?Key-Pair-Id=APK&Policy=eyJ&Signature=abc";
+
+        assertEquals("https://cdn.example.com/a.jpg", ImageCacheKeys.stripSignature(url));
+    }
+
+    @Test
+    void otherParamsKeepTheirOrder() {
+        String url = "https://cdn.example.com/a.jpg?w=100&Expires=1585000000&h=50&X-Amz-Signature=abc#top";
+
+        assertEquals("https://cdn.example.com/a.jpg?w=100&h=50#top", ImageCacheKeys.stripSignature(url));
+    }
+
+    @Test
+    void resignedUrlsShareTheCacheKey() {
+        String first = "https://cdn.example.com/a.jpg?Expires=1&Signature=one";
+        String second = "https://cdn.example.com/a.jpg?Expires=2&Signature=two";
+
+        assertEquals(ImageCacheKeys.stripSignature(first), ImageCacheKeys.stripSignature(second));
+    }
+}
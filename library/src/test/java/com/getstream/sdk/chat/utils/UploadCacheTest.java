@@ -0,0 +1,95 @@
+package com.getstream.sdk.chat.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+import io.getstream.chat.android.client.models.Attachment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class UploadCacheTest {
+
+    private static final String CID = "messaging:general";
+    private static final long HOUR = 60 * 60 * 1000;
+
+    @TempDir
+    File dir;
+
+    private UploadCache.MemoryStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new UploadCache.MemoryStore();
+    }
+
+    @Test
+    void hashIsTheSha256OfTheContent() throws IOException {
+        UploadCache cache = new UploadCache(store, HOUR);
+        File file = write("a.txt", "abc");
+
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", cache.hash(file));
+    }
+
+    @Test
+    void identicalContentSharesTheUpload() throws IOException {
+        UploadCache cache = new UploadCache(store, HOUR);
+        File first = write("first.jpg", "same bytes");
+        File copy = write("copy.jpg", "same bytes");
+        File other = write("other.jpg", "other bytes");
+
+        cache.put(CID, cache.hash(first), attachment("https://cdn/first.jpg"));
+
+        UploadCache.Entry entry = cache.lookupBlocking(CID, cache.hash(copy));
+        assertNotNull(entry);
+        assertEquals("https://cdn/first.jpg", entry.url);
+        assertNotEquals(cache.hash(first), cache.hash(other));
+        assertNull(cache.lookupBlocking(CID, cache.hash(other)));
+        assertNull(cache.lookupBlocking("messaging:other", cache.hash(copy)));
+    }
+
+    @Test
+    void entriesExpireWithTheUrlLifetime() throws IOException {
+        UploadCache cache = new UploadCache(store, 0);
+        File file = write("a.jpg", "bytes");
+        String hash = cache.hash(file);
+
+        cache.put(CID, hash, attachment("https://cdn/a.jpg"));
+
+        assertNull(cache.lookupBlocking(CID, hash));
+        assertNull(store.get(CID + ":" + hash));
+    }
+
+    @Test
+    void storeRemovesExpiredEntries() {
+        store.put("expired", new UploadCache.Entry("https://cdn/old.jpg", null, null, null, 0, 1));
+        store.put("valid", new UploadCache.Entry("https://cdn/new.jpg", null, null, null, 0, Long.MAX_VALUE));
+
+        store.removeExpired(System.currentTimeMillis());
+
+        assertNull(store.get("expired"));
+        assertNotNull(store.get("valid"));
+    }
+
+    private File write(String name, String content) throws IOException {
+        File file = new File(dir, name);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(content.getBytes(Charset.forName("UTF-8")));
+        }
+        return file;
+    }
+
+    private static Attachment attachment(String url) {
+        Attachment attachment = new Attachment();
+        attachment.setUrl(url);
+        return attachment;
+    }
+}